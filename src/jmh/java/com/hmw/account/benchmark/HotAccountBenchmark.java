@@ -0,0 +1,86 @@
+package com.hmw.account.benchmark;
+
+import com.hmw.account.AccountApplication;
+import com.hmw.account.controller.TransactionController;
+import com.hmw.account.dto.UseBalance;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.service.AccountService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debits one hot account from many threads, through the controller proxy so
+ * that @AccountLock applies exactly as it does for HTTP requests.
+ * Compares the locked read-modify-write path with the guarded UPDATE path, with the
+ * lock in memory and in the embedded Redis that LocalRedisConfig starts; only the latter
+ * pays the round trips that ATOMIC mode does away with.
+ * The primary score counts every call; compare useBalance:completed, since rejected
+ * debits are counted apart in useBalance:rejected.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class HotAccountBenchmark {
+    @Param({"LOCKED", "ATOMIC"})
+    private String mode;
+
+    @Param({"memory", "redisson"})
+    private String lockBackend;
+
+    private ConfigurableApplicationContext context;
+    private TransactionController transactionController;
+    private String accountNumber;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--account.transaction.mode=" + mode,
+                "--account.lock.backend=" + lockBackend,
+                "--spring.jpa.properties.hibernate.show_sql=false",
+                "--logging.level.root=WARN");
+
+        transactionController = context.getBean(TransactionController.class);
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(1L, Long.MAX_VALUE / 2)
+                .getAccountNumber();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void useBalance(Outcomes outcomes, Blackhole blackhole) {
+        try {
+            blackhole.consume(transactionController.useBalance(
+                    new UseBalance.Request(1L, accountNumber, 10L)));
+            outcomes.completed++;
+        } catch (AccountException e) {
+            outcomes.rejected++;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long completed;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            completed = 0;
+            rejected = 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.hmw.account.benchmark;
+
+import com.hmw.account.AccountApplication;
+import com.hmw.account.service.LockService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One uncontended lock/unlock round trip. The redisson backend talks to the
+ * embedded Redis that LocalRedisConfig starts with the context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+public class LockServiceBenchmark {
+    @Param({"memory", "redisson"})
+    private String lockBackend;
+
+    private ConfigurableApplicationContext context;
+    private LockService lockService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--account.lock.backend=" + lockBackend,
+                "--logging.level.root=WARN");
+
+        lockService = context.getBean(LockService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void lockAndUnlock() {
+        lockService.lock("1234567890");
+        lockService.unlock("1234567890");
+    }
+}
@@ -0,0 +1,64 @@
+package com.hmw.account.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.domain.Account;
+import com.hmw.account.domain.Transaction;
+import com.hmw.account.dto.QueryTransactionResponse;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.UseBalance;
+import com.hmw.account.service.TimeOrderedTransactionIdGenerator;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response mapping and JSON serialization of the response DTOs,
+ * with an ObjectMapper configured the way Spring MVC configures its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class ResponseMappingBenchmark {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private Transaction transaction;
+    private UseBalance.Response useBalanceResponse;
+    private QueryTransactionResponse queryTransactionResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transaction = Transaction.builder()
+                .id(1L)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .account(Account.builder().id(1L).accountNumber("1000000000").build())
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(new TimeOrderedTransactionIdGenerator(1).next())
+                .transactedAt(LocalDateTime.now())
+                .build();
+        useBalanceResponse = UseBalance.Response.from(TransactionDto.fromEntity(transaction));
+        queryTransactionResponse = QueryTransactionResponse.from(TransactionDto.fromEntity(transaction));
+    }
+
+    @Benchmark
+    public UseBalance.Response mapUseBalanceResponse() {
+        return UseBalance.Response.from(TransactionDto.fromEntity(transaction));
+    }
+
+    @Benchmark
+    public byte[] serializeUseBalanceResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(useBalanceResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeQueryTransactionResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(queryTransactionResponse);
+    }
+}
@@ -0,0 +1,36 @@
+package com.hmw.account.benchmark;
+
+import com.hmw.account.service.TimeOrderedTransactionIdGenerator;
+import com.hmw.account.service.TransactionIdGenerator;
+import com.hmw.account.service.UuidTransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of producing one transaction id, shared generator across threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class TransactionIdBenchmark {
+    @Param({"uuid", "time-ordered"})
+    private String generator;
+
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        transactionIdGenerator = generator.equals("uuid")
+                ? new UuidTransactionIdGenerator()
+                : new TimeOrderedTransactionIdGenerator(1);
+    }
+
+    @Benchmark
+    public String next() {
+        return transactionIdGenerator.next();
+    }
+}
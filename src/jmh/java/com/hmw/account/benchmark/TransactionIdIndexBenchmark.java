@@ -0,0 +1,95 @@
+package com.hmw.account.benchmark;
+
+import com.hmw.account.domain.TransactionIdConverter;
+import com.hmw.account.service.TimeOrderedTransactionIdGenerator;
+import com.hmw.account.service.TransactionIdGenerator;
+import com.hmw.account.service.UuidTransactionIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert and point lookup on a unique transaction id index in H2, comparing the
+ * old layout (random UUID hex in a varchar) with time-ordered ids in binary(16).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+public class TransactionIdIndexBenchmark {
+    private static final int PRELOADED_ROWS = 200_000;
+
+    @Param({"uuid-varchar", "time-ordered-binary"})
+    private String layout;
+
+    private final TransactionIdConverter converter = new TransactionIdConverter();
+    private TransactionIdGenerator transactionIdGenerator;
+    private boolean binary;
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement select;
+    private List<String> existingIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        binary = layout.startsWith("time-ordered");
+        transactionIdGenerator = binary
+                ? new TimeOrderedTransactionIdGenerator(1)
+                : new UuidTransactionIdGenerator();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + layout + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table tx (id bigint auto_increment primary key, transaction_id "
+                    + (binary ? "binary(16)" : "varchar(32)") + " not null unique, amount bigint)");
+        }
+        insert = connection.prepareStatement("insert into tx (transaction_id, amount) values (?, 1)");
+        select = connection.prepareStatement("select amount from tx where transaction_id = ?");
+
+        existingIds = new ArrayList<>(PRELOADED_ROWS);
+        for (int i = 0; i < PRELOADED_ROWS; i++) {
+            String transactionId = transactionIdGenerator.next();
+            existingIds.add(transactionId);
+            bind(insert, transactionId);
+            insert.addBatch();
+            if (i % 1000 == 999) {
+                insert.executeBatch();
+            }
+        }
+        insert.executeBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insert() throws SQLException {
+        bind(insert, transactionIdGenerator.next());
+        return insert.executeUpdate();
+    }
+
+    @Benchmark
+    public long lookup() throws SQLException {
+        bind(select, existingIds.get(ThreadLocalRandom.current().nextInt(existingIds.size())));
+        try (ResultSet resultSet = select.executeQuery()) {
+            return resultSet.next() ? resultSet.getLong(1) : -1;
+        }
+    }
+
+    private void bind(PreparedStatement statement, String transactionId) throws SQLException {
+        if (binary) {
+            statement.setBytes(1, converter.convertToDatabaseColumn(transactionId));
+        } else {
+            statement.setString(1, transactionId);
+        }
+    }
+}
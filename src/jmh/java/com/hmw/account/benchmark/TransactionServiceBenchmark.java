@@ -0,0 +1,65 @@
+package com.hmw.account.benchmark;
+
+import com.hmw.account.AccountApplication;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.service.AccountService;
+import com.hmw.account.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * useBalance and cancelBalance on H2, called on the service directly so no lock is taken.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+public class TransactionServiceBenchmark {
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private String accountNumber;
+    private String usedTransactionId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(AccountApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--account.lock.backend=memory",
+                "--logging.level.root=WARN");
+
+        transactionService = context.getBean(TransactionService.class);
+        accountNumber = context.getBean(AccountService.class)
+                .createAccount(1L, Long.MAX_VALUE / 2)
+                .getAccountNumber();
+    }
+
+    // each cancel needs a use of its own to cancel
+    @Setup(Level.Invocation)
+    public void useBeforeCancel(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("cancelBalance")) {
+            usedTransactionId = transactionService.useBalance(1L, accountNumber, 10L).getTransactionId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDto useBalance() {
+        return transactionService.useBalance(1L, accountNumber, 10L);
+    }
+
+    @Benchmark
+    public TransactionDto cancelBalance() {
+        return transactionService.cancelBalance(usedTransactionId, accountNumber, 10L);
+    }
+}
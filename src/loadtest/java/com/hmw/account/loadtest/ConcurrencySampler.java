@@ -0,0 +1,107 @@
+package com.hmw.account.loadtest;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples how many requests the server works on at once and how many threads it serves them with.
+ * Requests are counted by http.server.requests.active, which on MVC starts only once a request
+ * has a Tomcat thread, so whatever waits for one in the accept queue is not counted.
+ * Virtual threads are not enumerable, so on them only the JVM's platform threads are counted.
+ */
+class ConcurrencySampler implements AutoCloseable {
+    private static final long SAMPLE_INTERVAL_MILLIS = 50;
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final String requestThreadPrefix;
+    private final String requestThreadInfix;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "concurrency-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private long samples;
+    private long activeSum;
+    private long peakActive;
+    private int peakThreads;
+    private int peakPlatformThreads;
+
+    /**
+     * Threads named requestThreadPrefix...requestThreadInfix... are counted as request threads;
+     * a null prefix means requests run on virtual threads.
+     */
+    ConcurrencySampler(MeterRegistry meterRegistry, String requestThreadPrefix, String requestThreadInfix) {
+        this.meterRegistry = meterRegistry;
+        this.requestThreadPrefix = requestThreadPrefix;
+        this.requestThreadInfix = requestThreadInfix;
+    }
+
+    void start(long measureFromNanos) {
+        scheduler.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() >= measureFromNanos) {
+                sample();
+            }
+        }, SAMPLE_INTERVAL_MILLIS, SAMPLE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sample() {
+        LongTaskTimer active = meterRegistry.find("http.server.requests.active").longTaskTimer();
+        long activeRequests = active == null ? 0 : active.activeTasks();
+
+        samples++;
+        activeSum += activeRequests;
+        peakActive = Math.max(peakActive, activeRequests);
+        peakPlatformThreads = Math.max(peakPlatformThreads, threads.getThreadCount());
+        if (requestThreadPrefix != null) {
+            peakThreads = Math.max(peakThreads, countRequestThreads());
+        }
+    }
+
+    private int countRequestThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+
+        Thread[] threads = new Thread[root.activeCount() * 2];
+        int count = 0;
+        for (int i = 0, size = root.enumerate(threads, true); i < size; i++) {
+            String name = threads[i].getName();
+            if (name.startsWith(requestThreadPrefix) && name.contains(requestThreadInfix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    synchronized void report(String stack) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        double averageActive = samples == 0 ? 0 : (double) activeSum / samples;
+        if (requestThreadPrefix == null) {
+            System.out.printf("%nServer (%s): %d cores, a virtual thread per request%n", stack, cores);
+        } else {
+            System.out.printf("%nServer (%s): %d cores, %d request threads at peak%n", stack, cores, peakThreads);
+        }
+        System.out.printf("In flight: %.1f on average, %d at peak -> %.1f per core, %s per request thread%n",
+                averageActive,
+                peakActive,
+                averageActive / cores,
+                requestThreadPrefix == null ? "1" : String.format("%.1f", peakThreads == 0 ? 0 : averageActive / peakThreads));
+        // load clients run on virtual threads, so nearly all of these are the server's
+        System.out.printf("JVM platform threads: %d at peak%n", peakPlatformThreads);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,41 @@
+package com.hmw.account.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one operation type, recorded by a single client thread and merged at the end.
+ */
+class LatencyRecorder {
+    private long[] nanos = new long[1024];
+    private int size;
+
+    void record(long latencyNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = latencyNanos;
+    }
+
+    void addAll(LatencyRecorder other) {
+        for (int i = 0; i < other.size; i++) {
+            record(other.nanos[i]);
+        }
+    }
+
+    int count() {
+        return size;
+    }
+
+    /**
+     * Sorts in place, so call only once recording has finished.
+     */
+    double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        Arrays.sort(nanos, 0, size);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return nanos[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.hmw.account.loadtest;
+
+/**
+ * What each client request does.
+ */
+enum LoadScenario {
+    // debits only, hot-ratio of them on the hot accounts
+    HOT_KEY(0, 0),
+    // debits, and cancels of this client's own earlier debits
+    MIXED(0.3, 0),
+    // lookups of already created transactions, with some debits to keep creating them
+    READ_HEAVY(0, 0.9);
+
+    final double cancelRatio;
+    final double queryRatio;
+
+    LoadScenario(double cancelRatio, double queryRatio) {
+        this.cancelRatio = cancelRatio;
+        this.queryRatio = queryRatio;
+    }
+}
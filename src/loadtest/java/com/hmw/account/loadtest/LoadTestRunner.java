@@ -0,0 +1,395 @@
+package com.hmw.account.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.AccountApplication;
+import com.hmw.account.service.AccountService;
+import com.hmw.account.service.SubLedgerService;
+import com.hmw.reactive.ReactiveAccountApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Boots the application on a random port (H2, and embedded Redis unless
+ * lock-backend=memory), drives it over HTTP from many client threads and prints
+ * throughput, latency percentiles, error rates, the server's concurrency and a balance-vs-ledger check.
+ * <p>
+ * With stack=reactive the requests go to ReactiveAccountApplication instead, booted next to the MVC
+ * app on the same database and Redis; the MVC app then only creates the accounts. Comparing both
+ * stacks at the same clients shows how many requests each keeps in flight per core: MVC at most
+ * one per Tomcat thread, the reactive stack one per client.
+ * <p>
+ * virtual-threads=true runs the MVC app on a virtual thread per request instead of Tomcat's pool of
+ * platform threads, for comparing both at the same clients. Clients always run on virtual threads.
+ * <p>
+ * balance-slots=N splits the hot accounts into N sub-ledger slots before the run.
+ * <p>
+ * Arguments are key=value pairs, for example
+ * {@code scenario=MIXED clients=200 duration=30 hot-accounts=5 cold-accounts=500 mode=ATOMIC stack=reactive}
+ * or {@code clients=5000 virtual-threads=true}.
+ * Arguments starting with -- are passed to Spring unchanged.
+ * Exits with 1 when a balance does not match its ledger.
+ */
+public class LoadTestRunner {
+    private static final long USER_ID_BASE = 100_000L;
+    private static final int ACCOUNTS_PER_USER = 10;
+    private static final String LOCK_REJECTION = "ACCOUNT_TRANSACTION_LOCK";
+    private static final String REACTIVE = "reactive";
+
+    private final Map<String, String> options;
+    private final LoadScenario scenario;
+    private final String stack;
+    private final int clients;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int hotAccounts;
+    private final double hotRatio;
+    private final long amount;
+    private final long initialBalance;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // thousands of clients connect at once, each on a virtual thread
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    // recent successful debits, for READ_HEAVY lookups
+    private final AtomicReferenceArray<String> knownTransactionIds = new AtomicReferenceArray<>(4096);
+    private final AtomicLong knownTransactionCount = new AtomicLong();
+
+    private String baseUrl;
+    private String[] accountNumbers;
+    private long[] ownerIds;
+
+    LoadTestRunner(Map<String, String> options) {
+        this.options = options;
+        this.scenario = LoadScenario.valueOf(option("scenario", "HOT_KEY").toUpperCase().replace('-', '_'));
+        this.stack = option("stack", "mvc").toLowerCase();
+        this.clients = Integer.parseInt(option("clients", "200"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(option("warmup", "5")));
+        this.duration = Duration.ofSeconds(Long.parseLong(option("duration", "30")));
+        this.hotAccounts = Integer.parseInt(option("hot-accounts", "5"));
+        this.hotRatio = Double.parseDouble(option("hot-ratio", "0.8"));
+        this.amount = Long.parseLong(option("amount", "100"));
+        this.initialBalance = Long.parseLong(option("initial-balance", "1000000000000"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                springArgs.add(arg);
+            } else if (arg.contains("=")) {
+                options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Expected key=value : " + arg);
+            }
+        }
+
+        System.exit(new LoadTestRunner(options).run(springArgs) ? 0 : 1);
+    }
+
+    boolean run(List<String> springArgs) throws Exception {
+        String lockBackend = option("lock-backend", "redisson");
+        if (stack.equals(REACTIVE) && !lockBackend.equals("redisson")) {
+            throw new IllegalArgumentException("stack=reactive locks through Redis only");
+        }
+
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--account.lock.backend=" + lockBackend,
+                "--account.transaction.mode=" + option("mode", "LOCKED"),
+                // the reactive stack's R2DBC is on this classpath too and would replace the JDBC DataSource
+                "--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+                "--logging.level.root=WARN",
+                // rejections are expected under load and are counted below instead
+                "--logging.level.com.hmw.account=OFF"));
+        if (options.containsKey("virtual-threads")) {
+            args.add("--spring.threads.virtual.enabled=" + option("virtual-threads", "true"));
+        }
+        args.addAll(springArgs);
+
+        try (ConfigurableApplicationContext context =
+                     SpringApplication.run(AccountApplication.class, args.toArray(String[]::new));
+             ConfigurableApplicationContext reactiveContext = stack.equals(REACTIVE) ? runReactive() : null) {
+            ConfigurableApplicationContext serving = reactiveContext == null ? context : reactiveContext;
+            baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) serving).getWebServer().getPort();
+            createAccounts(context, hotAccounts + Integer.parseInt(option("cold-accounts", "500")));
+
+            Map<String, Stats> stats;
+            boolean virtualThreads = context.getEnvironment()
+                    .getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            try (ConcurrencySampler sampler = reactiveContext != null
+                    ? new ConcurrencySampler(reactiveContext.getBean(MeterRegistry.class), "reactor-http-", "")
+                    : new ConcurrencySampler(context.getBean(MeterRegistry.class),
+                    virtualThreads ? null : "http-nio-", "-exec-")) {
+                stats = drive(sampler);
+                report(stats);
+                sampler.report(reactiveContext == null && virtualThreads ? stack + ", virtual threads" : stack);
+            }
+            return checkLedger(context.getBean(JdbcTemplate.class), stats);
+        }
+    }
+
+    /**
+     * The reactive endpoints on the MVC app's in-memory database, whose schema JPA has created by now.
+     * On Netty, as when the app runs on its own; with Tomcat on this classpath too, it would get Tomcat.
+     */
+    private ConfigurableApplicationContext runReactive() {
+        return new SpringApplicationBuilder(ReactiveAccountApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(ReactiveAccountApplication.PROFILE)
+                .initializers(context -> ((GenericApplicationContext) context)
+                        .registerBean(NettyReactiveWebServerFactory.class))
+                .run("--server.port=0",
+                        "--spring.r2dbc.url=r2dbc:h2:mem:///test",
+                        "--spring.sql.init.mode=never",
+                        "--spring.autoconfigure.exclude=" +
+                                "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration," +
+                                "org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.hmw.reactive=OFF");
+    }
+
+    private void createAccounts(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        AccountService accountService = context.getBean(AccountService.class);
+
+        accountNumbers = new String[count];
+        ownerIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            long userId = USER_ID_BASE + i / ACCOUNTS_PER_USER;
+            if (i % ACCOUNTS_PER_USER == 0) {
+                jdbcTemplate.update("insert into account_user(id, name, created_at, updated_at) " +
+                        "values (?, ?, now(), now())", userId, "load-" + userId);
+            }
+            ownerIds[i] = userId;
+            accountNumbers[i] = accountService.createAccount(userId, initialBalance).getAccountNumber();
+        }
+
+        int balanceSlots = Integer.parseInt(option("balance-slots", "1"));
+        if (balanceSlots > 1) {
+            SubLedgerService subLedgerService = context.getBean(SubLedgerService.class);
+            for (int i = 0; i < hotAccounts; i++) {
+                subLedgerService.resize(ownerIds[i], accountNumbers[i], balanceSlots);
+            }
+        }
+
+        System.out.printf("Created %d accounts (%d hot%s), scenario %s, %d clients, %s%n",
+                count, hotAccounts, balanceSlots > 1 ? ", " + balanceSlots + " slots each" : "",
+                scenario, clients, baseUrl);
+    }
+
+    private Map<String, Stats> drive(ConcurrencySampler sampler) throws InterruptedException, ExecutionException {
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+        sampler.start(measureFrom);
+
+        List<Future<Map<String, Stats>>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(executorService.submit(() -> runClient(measureFrom, deadline)));
+        }
+
+        Map<String, Stats> merged = new TreeMap<>();
+        for (Future<Map<String, Stats>> future : futures) {
+            future.get().forEach((operation, stats) ->
+                    merged.computeIfAbsent(operation, k -> new Stats()).addAll(stats));
+        }
+        executorService.shutdown();
+        return merged;
+    }
+
+    private Map<String, Stats> runClient(long measureFrom, long deadline) throws Exception {
+        Map<String, Stats> stats = new HashMap<>();
+        Deque<long[]> ownDebits = new ArrayDeque<>();
+        Deque<String> ownDebitIds = new ArrayDeque<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < deadline) {
+            double dice = random.nextDouble();
+            String operation;
+            HttpRequest request;
+
+            if (dice < scenario.queryRatio && knownTransactionCount.get() > 0) {
+                operation = "query";
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/transaction/" + knownTransactionId(random)))
+                        .GET().build();
+            } else if (dice < scenario.cancelRatio && !ownDebits.isEmpty()) {
+                operation = "cancel";
+                long[] debit = ownDebits.pollFirst();
+                request = post("/transaction/cancel", Map.of(
+                        "transactionId", ownDebitIds.pollFirst(),
+                        "accountNumber", accountNumbers[(int) debit[0]],
+                        "amount", debit[1]));
+            } else {
+                operation = "use";
+                int account = pickAccount(random);
+                request = post("/transaction/use", Map.of(
+                        "userId", ownerIds[account],
+                        "accountNumber", accountNumbers[account],
+                        "amount", amount));
+                ownDebits.addLast(new long[]{account, amount});
+            }
+
+            long startedAt = System.nanoTime();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - startedAt;
+
+            JsonNode body = objectMapper.readTree(response.body());
+            String errorCode = response.statusCode() == 200 ? body.path("errorCode").asText(null) : "HTTP_" + response.statusCode();
+            Stats operationStats = stats.computeIfAbsent(operation, k -> new Stats());
+            operationStats.countOutcome(errorCode, startedAt >= measureFrom, latency);
+
+            if (operation.equals("use")) {
+                if (errorCode == null) {
+                    String transactionId = body.path("transactionId").asText();
+                    ownDebitIds.addLast(transactionId);
+                    remember(transactionId);
+                    if (ownDebitIds.size() > 64) {
+                        ownDebits.pollFirst();
+                        ownDebitIds.pollFirst();
+                    }
+                } else {
+                    ownDebits.pollLast();
+                }
+            }
+        }
+
+        return stats;
+    }
+
+    private int pickAccount(ThreadLocalRandom random) {
+        if (hotAccounts > 0 && random.nextDouble() < hotRatio) {
+            return random.nextInt(hotAccounts);
+        }
+        return hotAccounts + random.nextInt(accountNumbers.length - hotAccounts);
+    }
+
+    private HttpRequest post(String path, Map<String, Object> body) throws Exception {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private void remember(String transactionId) {
+        long index = knownTransactionCount.getAndIncrement();
+        knownTransactionIds.set((int) (index % knownTransactionIds.length()), transactionId);
+    }
+
+    private String knownTransactionId(ThreadLocalRandom random) {
+        int known = (int) Math.min(knownTransactionCount.get(), knownTransactionIds.length());
+        String transactionId = knownTransactionIds.get(random.nextInt(known));
+        return transactionId == null ? knownTransactionIds.get(0) : transactionId;
+    }
+
+    private void report(Map<String, Stats> stats) {
+        double seconds = duration.toNanos() / 1e9;
+        int measured = stats.values().stream().mapToInt(s -> s.latencies.count()).sum();
+        System.out.printf("%nThroughput: %.1f req/s over %.0fs (%d requests measured)%n", measured / seconds, seconds, measured);
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %12s%n",
+                "op", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "lock reject");
+        stats.forEach((operation, s) -> System.out.printf("%-8s %10d %10.1f %10.2f %10.2f %10.2f %11.2f%%%n",
+                operation,
+                s.latencies.count(),
+                s.latencies.count() / seconds,
+                s.latencies.percentileMillis(50),
+                s.latencies.percentileMillis(99),
+                s.latencies.percentileMillis(99.9),
+                s.latencies.count() == 0 ? 0 : 100.0 * s.measuredErrors.getOrDefault(LOCK_REJECTION, 0L) / s.latencies.count()));
+        stats.forEach((operation, s) -> {
+            if (!s.measuredErrors.isEmpty()) {
+                System.out.printf("%s errors: %s%n", operation, s.measuredErrors);
+            }
+        });
+    }
+
+    /**
+     * Every balance must equal its initial balance minus successful uses plus successful
+     * cancels, and the ledger must hold exactly the successes the clients were told about.
+     */
+    private boolean checkLedger(JdbcTemplate jdbcTemplate, Map<String, Stats> stats) {
+        // the balance as the services see it: the account row, plus in LEDGER mode the entries
+        // after its checkpoint, plus the slots of a sub-ledgered account
+        List<Map<String, Object>> mismatches = jdbcTemplate.queryForList(
+                "select * from (select a.account_number, " +
+                        "a.balance + coalesce((select sum(e.delta) from ledger_entry e " +
+                        "where e.account_id = a.id and e.sequence > coalesce(a.checkpoint_sequence, 0)), 0) " +
+                        "+ coalesce((select sum(s.balance) from account_balance_slot s where s.account_id = a.id), 0) " +
+                        "as balance, " +
+                        "coalesce((select sum(t.amount) from transaction t where t.account_id = a.id " +
+                        "and t.transaction_result_type = 'S' and t.transaction_type = 'USE'), 0) as used, " +
+                        "coalesce((select sum(t.amount) from transaction t where t.account_id = a.id " +
+                        "and t.transaction_result_type = 'S' and t.transaction_type = 'CANCEL'), 0) as cancelled " +
+                        "from account a where a.account_user_id >= ?) b " +
+                        "where b.balance <> ? - b.used + b.cancelled",
+                USER_ID_BASE, initialBalance);
+
+        long ledgerUses = count(jdbcTemplate, "USE");
+        long ledgerCancels = count(jdbcTemplate, "CANCEL");
+        long clientUses = stats.getOrDefault("use", new Stats()).successes;
+        long clientCancels = stats.getOrDefault("cancel", new Stats()).successes;
+
+        boolean consistent = mismatches.isEmpty() && ledgerUses == clientUses && ledgerCancels == clientCancels;
+        System.out.printf("%nLedger: %d uses, %d cancels (clients saw %d, %d); %d accounts out of balance -> %s%n",
+                ledgerUses, ledgerCancels, clientUses, clientCancels, mismatches.size(),
+                consistent ? "CONSISTENT" : "INCONSISTENT");
+        mismatches.stream().limit(10).forEach(row -> System.out.println("  " + row));
+        return consistent;
+    }
+
+    private long count(JdbcTemplate jdbcTemplate, String transactionType) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from transaction t join account a on a.id = t.account_id " +
+                        "where a.account_user_id >= ? and t.transaction_type = ? and t.transaction_result_type = 'S'",
+                Long.class, USER_ID_BASE, transactionType);
+    }
+
+    private String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+
+    private static class Stats {
+        private final LatencyRecorder latencies = new LatencyRecorder();
+        private final Map<String, Long> measuredErrors = new TreeMap<>();
+        // all requests, warmup included, for the ledger check
+        private long successes;
+
+        void countOutcome(String errorCode, boolean measured, long latencyNanos) {
+            if (errorCode == null) {
+                successes++;
+            }
+            if (measured) {
+                latencies.record(latencyNanos);
+                if (errorCode != null) {
+                    measuredErrors.merge(errorCode, 1L, Long::sum);
+                }
+            }
+        }
+
+        void addAll(Stats other) {
+            latencies.addAll(other.latencies);
+            other.measuredErrors.forEach((code, count) -> measuredErrors.merge(code, count, Long::sum));
+            successes += other.successes;
+        }
+    }
+}
@@ -3,12 +3,18 @@ package com.hmw.account.aop;
 import java.lang.annotation.*;
 
 /**
- * Documented Test
+ * Holds the account lock of the request's account number while the method runs.
+ * Times are in milliseconds. With adaptive set, tryLockTime becomes the minimum wait
+ * and leaseTime the maximum lease, and the actual values follow observed hold times.
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @Inherited
 public @interface AccountLock {
-    long tryLockTime() default 5000L;
-}
\ No newline at end of file
+    long tryLockTime() default 1000L;
+
+    long leaseTime() default 5000L;
+
+    boolean adaptive() default false;
+}
@@ -0,0 +1,53 @@
+package com.hmw.account.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * In-process caches for rows that almost never change. Caching advice runs outside
+ * the transaction advice, so an eviction happens only after the change is committed.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+    public static final String ACCOUNT_USER = "accountUser";
+    public static final String ACCOUNT_OWNERSHIP = "accountOwnership";
+    public static final String TRANSACTION_QUERY = "transactionQuery";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${account.cache.account-user.max-size:10000}") long accountUserMaxSize,
+            @Value("${account.cache.account-user.ttl:10m}") Duration accountUserTtl,
+            @Value("${account.cache.account-ownership.max-size:100000}") long accountOwnershipMaxSize,
+            @Value("${account.cache.account-ownership.ttl:10m}") Duration accountOwnershipTtl,
+            @Value("${account.cache.transaction-query.max-size:100000}") long transactionQueryMaxSize,
+            @Value("${account.cache.transaction-query.ttl:1h}") Duration transactionQueryTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // only explicitly registered caches, and misses are not cached
+        cacheManager.setCacheNames(List.of());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(ACCOUNT_USER, cache(accountUserMaxSize, accountUserTtl));
+        cacheManager.registerCustomCache(ACCOUNT_OWNERSHIP, cache(accountOwnershipMaxSize, accountOwnershipTtl));
+        cacheManager.registerCustomCache(TRANSACTION_QUERY, cache(transactionQueryMaxSize, transactionQueryTtl));
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> cache(long maxSize, Duration ttl) {
+        // W-TinyLFU eviction, stats feed the cache.gets / cache.evictions metrics
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.hmw.account.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two connection pools, so reads queueing for a connection never hold up the writers.
+ * Enabled by the replica profile; without it the single auto-configured pool is used.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "account.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("account.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Local stand-in for replication between two H2 databases: copies the primary's schema
+     * and rows once at startup. Later writes never reach the replica, which makes it
+     * an infinitely lagging replica for testing the read-your-writes fallbacks.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "account.datasource.replica.seed-from-primary", havingValue = "true")
+    public ApplicationListener<ApplicationReadyEvent> replicaSeeder(HikariDataSource primaryDataSource,
+                                                                   HikariDataSource replicaDataSource) {
+        return event -> {
+            List<String> script = new JdbcTemplate(primaryDataSource).queryForList("script", String.class);
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            script.forEach(replica::execute);
+            log.info("Seeded the replica with {} statements from the primary", script.size());
+        };
+    }
+}
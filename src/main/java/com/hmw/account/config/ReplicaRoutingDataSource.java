@@ -0,0 +1,24 @@
+package com.hmw.account.config;
+
+import com.hmw.account.service.ReplicaReadRouter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy, so the key is looked up at the first
+ * statement, once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !ReplicaReadRouter.isPrimaryRequired()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
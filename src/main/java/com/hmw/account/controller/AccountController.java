@@ -4,7 +4,9 @@ import com.hmw.account.dto.AccountDto;
 import com.hmw.account.dto.AccountInfo;
 import com.hmw.account.dto.CreateAccount;
 import com.hmw.account.dto.DeleteAccount;
+import com.hmw.account.dto.ResizeBalanceSlots;
 import com.hmw.account.service.AccountService;
+import com.hmw.account.service.SubLedgerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +19,7 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class AccountController{
     private final AccountService accountService;
+    private final SubLedgerService subLedgerService;
 
     //    사용자 아이디, 초기 잔액
     @PostMapping("/account")
@@ -40,6 +43,22 @@ public class AccountController{
         return DeleteAccount.Response.from(accountDto);
     }
 
+    // splits a hot account's balance across slot rows so debits stop queueing on one row
+    @PutMapping("/account/balance-slots")
+    public ResizeBalanceSlots.Response resizeBalanceSlots(
+            @Valid @RequestBody ResizeBalanceSlots.Request request) {
+        AccountDto accountDto = subLedgerService.resize(
+                request.getUserId(),
+                request.getAccountNumber(),
+                request.getBalanceSlots());
+
+        return ResizeBalanceSlots.Response.builder()
+                .accountNumber(accountDto.getAccountNumber())
+                .balanceSlots(request.getBalanceSlots())
+                .balance(accountDto.getBalance())
+                .build();
+    }
+
     @GetMapping("/account")
     public List<AccountInfo> getAccountByUserId(@RequestParam("user_id") Long userId) {
         return accountService.getAccountByUserId(userId)
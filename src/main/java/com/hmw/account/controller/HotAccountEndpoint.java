@@ -0,0 +1,25 @@
+package com.hmw.account.controller;
+
+import com.hmw.account.dto.HotAccount;
+import com.hmw.account.service.HotAccountTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Endpoint(id = "hotaccounts")
+@RequiredArgsConstructor
+public class HotAccountEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final HotAccountTracker hotAccountTracker;
+
+    @ReadOperation
+    public List<HotAccount> hotAccounts(@Nullable Integer limit) {
+        return hotAccountTracker.top(limit == null ? DEFAULT_LIMIT : limit);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hmw.account.controller;
+
+import com.hmw.account.dto.LedgerVerification;
+import com.hmw.account.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "ledger")
+@RequiredArgsConstructor
+public class LedgerEndpoint {
+    private final LedgerService ledgerService;
+
+    @ReadOperation
+    public LedgerVerification verify(@Selector String accountNumber) {
+        return ledgerService.verify(accountNumber);
+    }
+}
@@ -1,26 +1,61 @@
 package com.hmw.account.controller;
 
 import com.hmw.account.aop.AccountLock;
+import com.hmw.account.dto.BalanceMutation;
 import com.hmw.account.dto.CancelBalance;
 import com.hmw.account.dto.QueryTransactionResponse;
 import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.TransactionHistory;
 import com.hmw.account.dto.UseBalance;
+import com.hmw.account.dto.UseBalanceBatch;
 import com.hmw.account.exception.AccountException;
+import com.hmw.account.service.BalanceBatchService;
+import com.hmw.account.service.FailedTransactionRecorder;
+import com.hmw.account.service.ShardedBalanceExecutor;
+import com.hmw.account.service.TransactionExportService;
+import com.hmw.account.service.TransactionQueryCache;
 import com.hmw.account.service.TransactionService;
+import com.hmw.account.type.ExportFormat;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 @RestController
 @RequiredArgsConstructor
 @Slf4j
 public class TransactionController {
     private final TransactionService transactionService;
+    private final BalanceBatchService balanceBatchService;
+    private final FailedTransactionRecorder failedTransactionRecorder;
+    private final TransactionExportService transactionExportService;
+    private final TransactionQueryCache transactionQueryCache;
+    private final ObjectProvider<ShardedBalanceExecutor> shardedBalanceExecutor;
 
     @PostMapping("/transaction/use")
-    @AccountLock
+    @AccountLock(adaptive = true)
     public UseBalance.Response useBalance(@Valid @RequestBody UseBalance.Request request) {
+        ShardedBalanceExecutor sharded = shardedBalanceExecutor.getIfAvailable();
+        if (sharded != null) {
+            return UseBalance.Response.from(sharded.execute(BalanceMutation.use(
+                    request.getUserId(),
+                    request.getAccountNumber(),
+                    request.getAmount()
+            )));
+        }
 
         try {
             return UseBalance.Response.from(transactionService.useBalance(
@@ -31,7 +66,7 @@ public class TransactionController {
         } catch (AccountException e) {
             log.error("Filed to use balance.");
 
-            transactionService.saveFiledUseTransaction(
+            failedTransactionRecorder.recordUse(
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -40,9 +75,31 @@ public class TransactionController {
         }
     }
 
+    @PostMapping("/transaction/use/batch")
+    public UseBalanceBatch.Response useBalanceBatch(@Valid @RequestBody UseBalanceBatch.Request request) {
+        return new UseBalanceBatch.Response(balanceBatchService.apply(
+                request.getItems().stream()
+                        .map(item -> BalanceMutation.use(
+                                item.getUserId(),
+                                item.getAccountNumber(),
+                                item.getAmount()))
+                        .toList()
+                ).stream()
+                .map(UseBalanceBatch.Item::from)
+                .toList());
+    }
+
     @PostMapping("/transaction/cancel")
-    @AccountLock
+    @AccountLock(adaptive = true)
     public CancelBalance.Response cancelBalance(@Valid @RequestBody CancelBalance.Request request) {
+        ShardedBalanceExecutor sharded = shardedBalanceExecutor.getIfAvailable();
+        if (sharded != null) {
+            return CancelBalance.Response.from(sharded.execute(BalanceMutation.cancel(
+                    request.getTransactionId(),
+                    request.getAccountNumber(),
+                    request.getAmount()
+            )));
+        }
 
         try {
             return CancelBalance.Response.from(
@@ -53,7 +110,7 @@ public class TransactionController {
         } catch (AccountException e) {
             log.error("Failed to cancel balance.");
 
-            transactionService.saveFailedCancelTransaction(
+            failedTransactionRecorder.recordCancel(
                     request.getAccountNumber(),
                     request.getAmount()
             );
@@ -63,8 +120,59 @@ public class TransactionController {
 
     }
 
+    /**
+     * A transaction never changes, so its id is a strong validator for the representation.
+     * The id is still resolved first, through the cache, so an unknown one gets its error
+     * rather than a 304.
+     */
     @GetMapping("/transaction/{transactionId}")
-    public QueryTransactionResponse queryResponse(@PathVariable String transactionId) {
-        return QueryTransactionResponse.from(transactionService.queryTransaction(transactionId));
+    public ResponseEntity<QueryTransactionResponse> queryResponse(@PathVariable String transactionId,
+                                                                  WebRequest webRequest) {
+        QueryTransactionResponse transaction = transactionQueryCache.get(transactionId);
+
+        String eTag = "\"" + transactionId + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .body(transaction);
+    }
+
+    @GetMapping("/account/{accountNumber}/transactions")
+    public TransactionHistory getTransactionHistory(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "transaction_type", required = false) TransactionType transactionType,
+            @RequestParam(value = "transaction_result_type", required = false)
+            TransactionResultType transactionResultType) {
+        return transactionService.getTransactionHistory(
+                accountNumber, cursor, size, transactionType, transactionResultType);
+    }
+
+    @GetMapping("/account/{accountNumber}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @PathVariable String accountNumber,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        Long accountId = transactionExportService.getAccountId(accountNumber);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" +
+                        accountNumber + "-transactions." + format.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return response.body(outputStream -> transactionExportService.export(
+                accountId, from, to, format, gzip, outputStream));
     }
 }
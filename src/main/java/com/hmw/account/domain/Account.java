@@ -21,19 +21,30 @@ import java.time.LocalDateTime;
 @EntityListeners(AuditingEntityListener.class)
 public class Account {
     @Id
-    @GeneratedValue
+    @PooledSequence
     private Long id;
 
-    @ManyToOne
+    // only the owner's id is ever read, and that comes from the foreign key without loading the user
+    @ManyToOne(fetch = FetchType.LAZY)
     private AccountUser accountUser;
 
+    @Column(unique = true)
     private String accountNumber;
 
     @Enumerated(EnumType.STRING)
     private AccountStatus accountStatus;
 
+    // in LEDGER mode the balance as of checkpointSequence; LedgerEntry rows after it make up the rest
     private Long balance;
 
+    private Long checkpointSequence;
+
+    // set when the balance is split across AccountBalanceSlot rows; balance then holds only the unsplit rest
+    private Integer balanceSlots;
+
+    @Version
+    private Long version;
+
     private LocalDateTime registeredAt;
     private LocalDateTime unRegisteredAt;
 
@@ -42,6 +53,10 @@ public class Account {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    public boolean isSubLedgered() {
+        return balanceSlots != null && balanceSlots > 1;
+    }
+
     public void useBalance(Long amount) {
         if (amount > this.balance) {
             throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
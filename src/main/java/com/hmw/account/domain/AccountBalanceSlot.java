@@ -0,0 +1,29 @@
+package com.hmw.account.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One share of a sub-ledgered account's balance. Debits and credits go to a single
+ * slot with a guarded UPDATE, so writers to the same account only contend per slot.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_account_balance_slot", columnNames = {"account_id", "slot_index"}))
+public class AccountBalanceSlot {
+    @Id
+    @PooledSequence
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account;
+
+    private Integer slotIndex;
+
+    private Long balance;
+}
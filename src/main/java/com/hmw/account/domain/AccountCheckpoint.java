@@ -0,0 +1,37 @@
+package com.hmw.account.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Every checkpoint the account row has held, so a balance can be rebuilt or checked
+ * from the nearest earlier one instead of from the first ledger entry.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_account_checkpoint_account_sequence", columnNames = {"account_id", "sequence"}))
+@EntityListeners(AuditingEntityListener.class)
+public class AccountCheckpoint {
+    @Id
+    @PooledSequence
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account;
+
+    private Long sequence;
+
+    private Long balance;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
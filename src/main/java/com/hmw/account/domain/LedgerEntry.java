@@ -0,0 +1,37 @@
+package com.hmw.account.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * One balance change in LEDGER mode. Entries are only ever inserted; the per-account
+ * sequence is unique, so two writers that read the same ledger position cannot both append.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(
+        name = "uk_ledger_entry_account_sequence", columnNames = {"account_id", "sequence"}))
+@EntityListeners(AuditingEntityListener.class)
+public class LedgerEntry {
+    @Id
+    @PooledSequence
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Account account;
+
+    private Long sequence;
+
+    private Long delta;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+}
@@ -4,6 +4,8 @@ import com.hmw.account.type.TransactionResultType;
 import com.hmw.account.type.TransactionType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,10 +18,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(indexes = @Index(
+        name = "idx_transaction_account_transacted_at",
+        columnList = "account_id, transacted_at, id"))
+@NamedEntityGraph(name = "Transaction.account", attributeNodes = @NamedAttributeNode("account"))
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
     @Id
-    @GeneratedValue
+    @PooledSequence
     private Long id;
 
     @Enumerated(EnumType.STRING)
@@ -27,11 +33,15 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionResultType transactionResultType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Account account;
     private Long amount;
+    // the balance right after the transaction; null on F rows recorded after the request returned
     private Long balanceSnapshot;
 
+    @Convert(converter = TransactionIdConverter.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16, unique = true)
     private String transactionId;
     private LocalDateTime transactedAt;
 
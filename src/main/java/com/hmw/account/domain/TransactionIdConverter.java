@@ -0,0 +1,38 @@
+package com.hmw.account.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.HexFormat;
+
+/**
+ * Stores the 32-character hex transaction id as 16 raw bytes. Text that is not such
+ * an id becomes an empty value, which no stored row matches, so a lookup with it
+ * simply finds nothing.
+ */
+@Converter
+public class TransactionIdConverter implements AttributeConverter<String, byte[]> {
+    private static final HexFormat HEX = HexFormat.of();
+    private static final byte[] NO_MATCH = new byte[0];
+
+    @Override
+    public byte[] convertToDatabaseColumn(String transactionId) {
+        if (transactionId == null) {
+            return null;
+        }
+        if (transactionId.length() != 32) {
+            return NO_MATCH;
+        }
+
+        try {
+            return HEX.parseHex(transactionId);
+        } catch (IllegalArgumentException e) {
+            return NO_MATCH;
+        }
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        return bytes == null ? null : HEX.formatHex(bytes);
+    }
+}
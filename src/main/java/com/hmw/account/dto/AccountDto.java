@@ -29,4 +29,14 @@ public class AccountDto {
                 .unRegisteredAt(account.getUnRegisteredAt())
                 .build();
     }
+
+    public static AccountDto fromSummary(AccountSummary account, Long balance) {
+        return AccountDto.builder()
+                .userId(account.getUserId())
+                .accountNumber(account.getAccountNumber())
+                .balance(balance)
+                .registeredAt(account.getRegisteredAt())
+                .unRegisteredAt(account.getUnRegisteredAt())
+                .build();
+    }
 }
@@ -0,0 +1,21 @@
+package com.hmw.account.dto;
+
+import com.hmw.account.type.AccountStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Who owns an account and whether it is usable, without loading the row itself.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountOwnership {
+    private Long accountId;
+    private Long ownerId;
+    private AccountStatus accountStatus;
+    private Integer balanceSlots;
+
+    public boolean isSubLedgered() {
+        return balanceSlots != null && balanceSlots > 1;
+    }
+}
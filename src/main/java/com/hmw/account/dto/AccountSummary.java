@@ -0,0 +1,26 @@
+package com.hmw.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns an account listing needs, selected without loading the entity or its owner.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountSummary {
+    private Long accountId;
+    private Long userId;
+    private String accountNumber;
+    private Long balance;
+    private Long checkpointSequence;
+    private Integer balanceSlots;
+    private LocalDateTime registeredAt;
+    private LocalDateTime unRegisteredAt;
+
+    public boolean isSubLedgered() {
+        return balanceSlots != null && balanceSlots > 1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hmw.account.dto;
+
+import com.hmw.account.type.TransactionType;
+import lombok.*;
+
+/**
+ * A use or cancel request, applied together with others in one DB transaction.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BalanceMutation {
+    private TransactionType transactionType;
+    private Long userId;
+    private String transactionId;
+    private String accountNumber;
+    private Long amount;
+
+    public static BalanceMutation use(Long userId, String accountNumber, Long amount) {
+        return BalanceMutation.builder()
+                .transactionType(TransactionType.USE)
+                .userId(userId)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .build();
+    }
+
+    public static BalanceMutation cancel(String transactionId, String accountNumber, Long amount) {
+        return BalanceMutation.builder()
+                .transactionType(TransactionType.CANCEL)
+                .transactionId(transactionId)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,32 @@
+package com.hmw.account.dto;
+
+import com.hmw.account.exception.AccountException;
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+public class BalanceMutationResult {
+    private BalanceMutation mutation;
+    private TransactionDto transaction;
+    private AccountException error;
+
+    public static BalanceMutationResult success(BalanceMutation mutation, TransactionDto transaction) {
+        return new BalanceMutationResult(mutation, transaction, null);
+    }
+
+    public static BalanceMutationResult failure(BalanceMutation mutation, AccountException error) {
+        return new BalanceMutationResult(mutation, null, error);
+    }
+
+    /**
+     * A failure that was recorded as an F transaction.
+     */
+    public static BalanceMutationResult failure(
+            BalanceMutation mutation, TransactionDto transaction, AccountException error) {
+        return new BalanceMutationResult(mutation, transaction, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
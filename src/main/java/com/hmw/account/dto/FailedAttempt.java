@@ -0,0 +1,21 @@
+package com.hmw.account.dto;
+
+import com.hmw.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A use or cancel that failed, waiting to be written as an F transaction.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class FailedAttempt {
+    private TransactionType transactionType;
+    private String accountNumber;
+    private Long amount;
+    private LocalDateTime transactedAt;
+}
@@ -0,0 +1,18 @@
+package com.hmw.account.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class HotAccount {
+    private String accountNumber;
+    // upper bound of lock attempts, the true count is at least lockAttempts - overestimation
+    private long lockAttempts;
+    private long overestimation;
+    private long lockFailures;
+    private double averageWaitMillis;
+    private double maxWaitMillis;
+}
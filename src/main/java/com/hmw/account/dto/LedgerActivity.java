@@ -0,0 +1,14 @@
+package com.hmw.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * An account with ledger entries after some entry id, and the newest of them.
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerActivity {
+    private Long accountId;
+    private Long lastEntryId;
+}
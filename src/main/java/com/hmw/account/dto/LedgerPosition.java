@@ -0,0 +1,14 @@
+package com.hmw.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The last sequence of a ledger range and the sum of its deltas.
+ */
+@Getter
+@AllArgsConstructor
+public class LedgerPosition {
+    private Long lastSequence;
+    private Long delta;
+}
@@ -0,0 +1,22 @@
+package com.hmw.account.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LedgerVerification {
+    private String accountNumber;
+    private Long balance;
+    private Long lastSequence;
+
+    private Long checkpointSequence;
+    private Long checkpointBalance;
+
+    // the account row's checkpoint rebuilt from the nearest earlier recorded checkpoint
+    private Long baseSequence;
+    private Long rebuiltCheckpointBalance;
+    private boolean consistent;
+}
@@ -0,0 +1,17 @@
+package com.hmw.account.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionHistory {
+    private String accountNumber;
+    private List<TransactionHistoryItem> transactions;
+    // null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.hmw.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One statement line, selected directly by the history query.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransactionHistoryItem {
+    @JsonIgnore
+    private Long id;
+    private String transactionId;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    // null for most failed attempts, which are recorded without reading the balance
+    private Long balanceSnapshot;
+    private LocalDateTime transactedAt;
+}
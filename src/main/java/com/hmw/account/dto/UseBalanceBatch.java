@@ -0,0 +1,67 @@
+package com.hmw.account.dto;
+
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionResultType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class UseBalanceBatch {
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Request {
+        @Valid
+        @NotEmpty
+        @Size(max = 1000)
+        private List<UseBalance.Request> items;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Response {
+        private List<Item> items;
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class Item {
+        private String accountNumber;
+        private TransactionResultType transactionResultType;
+        private String transactionId;
+        private Long amount;
+        private LocalDateTime transactedAt;
+        private ErrorCode errorCode;
+        private String errorMessage;
+
+        public static Item from(BalanceMutationResult result) {
+            TransactionDto transaction = result.getTransaction();
+            ItemBuilder item = Item.builder()
+                    .accountNumber(result.getMutation().getAccountNumber())
+                    .transactionResultType(result.isSuccess() ? TransactionResultType.S : TransactionResultType.F)
+                    .amount(result.getMutation().getAmount());
+
+            if (transaction != null) {
+                item.transactionId(transaction.getTransactionId())
+                        .transactedAt(transaction.getTransactedAt());
+            }
+            if (!result.isSuccess()) {
+                item.errorCode(result.getError().getErrorCode())
+                        .errorMessage(result.getError().getMessage());
+            }
+
+            return item.build();
+        }
+    }
+}
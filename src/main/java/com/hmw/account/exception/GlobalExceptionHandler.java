@@ -2,17 +2,24 @@ package com.hmw.account.exception;
 
 import com.hmw.account.dto.ErrorResponse;
 import com.hmw.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    public static final String ERRORS_METER = "account.errors";
+
+    private final MeterRegistry meterRegistry;
 
     @ExceptionHandler(AccountException.class)
     public ErrorResponse handleAccountException(AccountException e) {
         log.error("{} is occred.", e.getErrorCode());
+        meterRegistry.counter(ERRORS_METER, "code", e.getErrorCode().name()).increment();
 
         return new ErrorResponse(e.getErrorCode(), e.getMessage());
     }
@@ -20,6 +27,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ErrorResponse handleException(Exception e) {
         log.error("Error is occred.", e);
+        meterRegistry.counter(ERRORS_METER, "code", ErrorCode.INTERNAL_SERVER_ERROR.name()).increment();
 
         return new ErrorResponse(ErrorCode.INTERNAL_SERVER_ERROR,
                 ErrorCode.INTERNAL_SERVER_ERROR.getDescription());
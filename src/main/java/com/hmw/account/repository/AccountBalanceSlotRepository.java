@@ -0,0 +1,55 @@
+package com.hmw.account.repository;
+
+import com.hmw.account.domain.AccountBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Slots are only ever changed with bulk statements, never through managed entities,
+ * so the persistence context cannot hold a stale slot balance.
+ */
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+    @Query("select coalesce(sum(s.balance), 0) from AccountBalanceSlot s where s.account.id = :accountId")
+    long sumBalance(@Param("accountId") Long accountId);
+
+    @Query("select s.balance from AccountBalanceSlot s where s.account.id = :accountId order by s.slotIndex")
+    List<Long> findBalances(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query("update AccountBalanceSlot s set s.balance = s.balance - :amount " +
+            "where s.account.id = :accountId and s.slotIndex = :slotIndex and s.balance >= :amount")
+    int useIfSufficient(@Param("accountId") Long accountId,
+                        @Param("slotIndex") int slotIndex,
+                        @Param("amount") Long amount);
+
+    @Modifying
+    @Query("update AccountBalanceSlot s set s.balance = s.balance + :amount " +
+            "where s.account.id = :accountId and s.slotIndex = :slotIndex")
+    int cancel(@Param("accountId") Long accountId,
+               @Param("slotIndex") int slotIndex,
+               @Param("amount") Long amount);
+
+    /**
+     * Row-locks every slot of the account until the transaction ends.
+     */
+    @Modifying
+    @Query("update AccountBalanceSlot s set s.balance = s.balance where s.account.id = :accountId")
+    int lockAll(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query("update AccountBalanceSlot s set s.balance = :balance " +
+            "where s.account.id = :accountId and s.slotIndex = :slotIndex")
+    int setBalance(@Param("accountId") Long accountId,
+                   @Param("slotIndex") int slotIndex,
+                   @Param("balance") Long balance);
+
+    @Modifying
+    @Query("delete from AccountBalanceSlot s where s.account.id = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+}
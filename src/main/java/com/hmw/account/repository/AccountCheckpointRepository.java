@@ -0,0 +1,20 @@
+package com.hmw.account.repository;
+
+import com.hmw.account.domain.AccountCheckpoint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountCheckpointRepository extends JpaRepository<AccountCheckpoint, Long> {
+    @Query("select c from AccountCheckpoint c " +
+            "where c.account.id = :accountId and c.sequence < :sequence " +
+            "order by c.sequence desc")
+    List<AccountCheckpoint> findBefore(@Param("accountId") Long accountId,
+                                       @Param("sequence") Long sequence,
+                                       Limit limit);
+}
@@ -0,0 +1,47 @@
+package com.hmw.account.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class AccountNumberSequenceRepository {
+    private static final String SEQUENCE_NAME = "account_number_seq";
+    private static final String INCREMENT_SQL =
+            "select increment from information_schema.sequences where lower(sequence_name) = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+
+    public AccountNumberSequenceRepository(JdbcTemplate jdbcTemplate,
+                                           EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect()
+                .getSequenceSupport()
+                .getSequenceNextValString(SEQUENCE_NAME);
+    }
+
+    public long nextBlockStart() {
+        Long next = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+        if (next == null) {
+            throw new IllegalStateException("Sequence returned no value : " + SEQUENCE_NAME);
+        }
+        return next;
+    }
+
+    /**
+     * The sequence's increment, i.e. how many account numbers each value reserves.
+     */
+    public int blockSize() {
+        List<Long> increments = jdbcTemplate.queryForList(INCREMENT_SQL, Long.class, SEQUENCE_NAME);
+        if (increments.size() != 1 || increments.get(0) < 1) {
+            throw new IllegalStateException("Sequence not found or not ascending : " + SEQUENCE_NAME);
+        }
+        return Math.toIntExact(increments.get(0));
+    }
+}
@@ -1,20 +1,75 @@
 package com.hmw.account.repository;
 
+import com.hmw.account.config.CacheConfig;
 import com.hmw.account.domain.Account;
 import com.hmw.account.domain.AccountUser;
+import com.hmw.account.dto.AccountOwnership;
+import com.hmw.account.dto.AccountSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-    Optional<Account> findFirstByOrderByIdDesc();
-
     Integer countByAccountUser(AccountUser accountUser);
 
+    // the account row alone; callers compare owners by id, which the lazy owner answers from the foreign key
     Optional<Account> findByAccountNumber(String AccountNumber);
 
-    List<Account> findByAccountUser(AccountUser accountUser);
+    /**
+     * Locks the row and bumps its version, so writers that read the account before fail on it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_FORCE_INCREMENT)
+    Optional<Account> findLockedByAccountNumber(String accountNumber);
+
+    /**
+     * Near-cached; evicted when the account is unregistered.
+     */
+    @Cacheable(cacheNames = CacheConfig.ACCOUNT_OWNERSHIP, key = "#p0", unless = "#result == null")
+    @Query("select new com.hmw.account.dto.AccountOwnership(a.id, a.accountUser.id, a.accountStatus, a.balanceSlots) " +
+            "from Account a where a.accountNumber = :accountNumber")
+    Optional<AccountOwnership> findOwnershipByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("select new com.hmw.account.dto.AccountSummary(a.id, a.accountUser.id, a.accountNumber, " +
+            "a.balance, a.checkpointSequence, a.balanceSlots, a.registeredAt, a.unRegisteredAt) " +
+            "from Account a where a.accountUser.id = :userId")
+    List<AccountSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    List<Account> findByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance - :amount, a.version = a.version + 1 " +
+            "where a.accountNumber = :accountNumber " +
+            "and a.accountUser.id = :userId " +
+            "and a.balance >= :amount " +
+            "and a.accountStatus = com.hmw.account.type.AccountStatus.IN_USE")
+    int useBalanceIfSufficient(@Param("userId") Long userId,
+                               @Param("accountNumber") String accountNumber,
+                               @Param("amount") Long amount);
+
+    /**
+     * Moves the LEDGER mode checkpoint forward, unless another node already moved it from {@code expected}.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = :balance, a.checkpointSequence = :sequence " +
+            "where a.id = :id and coalesce(a.checkpointSequence, 0) = :expected")
+    int checkpoint(@Param("id") Long id,
+                   @Param("expected") Long expected,
+                   @Param("sequence") Long sequence,
+                   @Param("balance") Long balance);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :amount, a.version = a.version + 1 " +
+            "where a.accountNumber = :accountNumber")
+    int cancelBalance(@Param("accountNumber") String accountNumber,
+                      @Param("amount") Long amount);
 }
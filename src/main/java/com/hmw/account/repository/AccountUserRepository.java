@@ -1,7 +1,31 @@
 package com.hmw.account.repository;
 
+import com.hmw.account.config.CacheConfig;
 import com.hmw.account.domain.AccountUser;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
+
 public interface AccountUserRepository extends JpaRepository<AccountUser, Long> {
+    /**
+     * Served from the near cache; the returned user is detached unless already
+     * loaded in the current persistence context.
+     */
+    @Override
+    @Cacheable(cacheNames = CacheConfig.ACCOUNT_USER, key = "#p0", unless = "#result == null")
+    Optional<AccountUser> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNT_USER, key = "#p0.id", condition = "#p0.id != null")
+    <S extends AccountUser> S save(S accountUser);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNT_USER, key = "#p0")
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNT_USER, key = "#p0.id")
+    void delete(AccountUser accountUser);
 }
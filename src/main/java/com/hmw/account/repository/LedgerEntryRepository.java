@@ -0,0 +1,32 @@
+package com.hmw.account.repository;
+
+import com.hmw.account.domain.LedgerEntry;
+import com.hmw.account.dto.LedgerActivity;
+import com.hmw.account.dto.LedgerPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    /**
+     * Entries in (from, to]; without any the last sequence is {@code from} and the delta 0.
+     */
+    @Query("select new com.hmw.account.dto.LedgerPosition(coalesce(max(e.sequence), :from), coalesce(sum(e.delta), 0)) " +
+            "from LedgerEntry e " +
+            "where e.account.id = :accountId and e.sequence > :from and e.sequence <= :to")
+    LedgerPosition findPosition(@Param("accountId") Long accountId,
+                                @Param("from") Long from,
+                                @Param("to") Long to);
+
+    @Query("select new com.hmw.account.dto.LedgerActivity(e.account.id, max(e.id)) " +
+            "from LedgerEntry e " +
+            "where e.id > :entryId " +
+            "group by e.account.id " +
+            "order by max(e.id)")
+    List<LedgerActivity> findActivityAfter(@Param("entryId") Long entryId, Limit limit);
+}
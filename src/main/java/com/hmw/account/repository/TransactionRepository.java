@@ -1,14 +1,99 @@
 package com.hmw.account.repository;
 
 import com.hmw.account.domain.Transaction;
+import com.hmw.account.dto.QueryTransactionResponse;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.TransactionHistoryItem;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.file.LinkOption;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     Optional<Transaction> findByTransactionId(String transactionId);
 
+    // for cancels, which go on to write against the same account.
+    // A named graph, because Spring Data looks an ad-hoc one up by name first and fails on every call.
+    @EntityGraph("Transaction.account")
+    Optional<Transaction> findWithAccountByTransactionId(String transactionId);
+
+    @Transactional(readOnly = true)
+    @Query("select new com.hmw.account.dto.TransactionDto(" +
+            "t.account.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapshot, t.transactionId, t.transactedAt) " +
+            "from Transaction t where t.transactionId = :transactionId")
+    Optional<TransactionDto> findDtoByTransactionId(@Param("transactionId") String transactionId);
+
+    // joins only the account, for its number. Read-only, so it is served by the replica when there is one
+    @Transactional(readOnly = true)
+    @Query("select new com.hmw.account.dto.QueryTransactionResponse(" +
+            "t.account.accountNumber, t.transactionType, t.transactionResultType, " +
+            "t.transactionId, t.amount, t.transactedAt) " +
+            "from Transaction t where t.transactionId = :transactionId")
+    Optional<QueryTransactionResponse> findQueryResponseByTransactionId(
+            @Param("transactionId") String transactionId);
+
+    @Query("select new com.hmw.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and (:transactionType is null or t.transactionType = :transactionType) " +
+            "and (:transactionResultType is null or t.transactionResultType = :transactionResultType) " +
+            "order by t.transactedAt desc, t.id desc")
+    List<TransactionHistoryItem> findHistory(@Param("accountId") Long accountId,
+                                             @Param("transactionType") TransactionType transactionType,
+                                             @Param("transactionResultType") TransactionResultType transactionResultType,
+                                             Limit limit);
+
+    /**
+     * Next page of {@link #findHistory}: rows strictly older than the cursor row,
+     * so the index on (account_id, transacted_at, id) is entered at the cursor.
+     */
+    @Query("select new com.hmw.account.dto.TransactionHistoryItem(" +
+            "t.id, t.transactionId, t.transactionType, t.transactionResultType, " +
+            "t.amount, t.balanceSnapshot, t.transactedAt) " +
+            "from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and (t.transactedAt < :transactedAt or (t.transactedAt = :transactedAt and t.id < :id)) " +
+            "and (:transactionType is null or t.transactionType = :transactionType) " +
+            "and (:transactionResultType is null or t.transactionResultType = :transactionResultType) " +
+            "order by t.transactedAt desc, t.id desc")
+    List<TransactionHistoryItem> findHistoryBefore(@Param("accountId") Long accountId,
+                                                   @Param("transactedAt") LocalDateTime transactedAt,
+                                                   @Param("id") Long id,
+                                                   @Param("transactionType") TransactionType transactionType,
+                                                   @Param("transactionResultType") TransactionResultType transactionResultType,
+                                                   Limit limit);
+
+    /**
+     * Forward-only cursor over an account's transactions, oldest first. The caller must
+     * close the stream inside a transaction; {@code from} and {@code to} may be null.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select t from Transaction t " +
+            "where t.account.id = :accountId " +
+            "and (:from is null or t.transactedAt >= :from) " +
+            "and (:to is null or t.transactedAt < :to) " +
+            "order by t.transactedAt, t.id")
+    Stream<Transaction> streamForExport(@Param("accountId") Long accountId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,65 @@
+package com.hmw.account.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM lock table keyed by lock key.
+ * An entry lives only while some thread holds or waits for it, so memory
+ * follows the number of accounts in flight and two different accounts
+ * never contend on the same lock.
+ */
+public class AccountLockRegistry {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public boolean tryLock(String key, long waitTime, TimeUnit unit) throws InterruptedException {
+        Entry entry = retain(key);
+        boolean locked = false;
+
+        try {
+            locked = entry.lock.tryLock(waitTime, unit);
+            return locked;
+        } finally {
+            if (!locked) {
+                release(key);
+            }
+        }
+    }
+
+    public void unlock(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.lock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("Local lock is not held : " + key);
+        }
+
+        entry.lock.unlock();
+        release(key);
+    }
+
+    public int getQueueLength(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? 0 : entry.lock.getQueueLength();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Entry retain(String key) {
+        return entries.compute(key, (k, entry) -> {
+            Entry retained = entry == null ? new Entry() : entry;
+            retained.users++;
+            return retained;
+        });
+    }
+
+    private void release(String key) {
+        entries.computeIfPresent(key, (k, entry) -> --entry.users == 0 ? null : entry);
+    }
+
+    private static class Entry {
+        private final ReentrantLock lock = new ReentrantLock(true);
+        private int users;
+    }
+}
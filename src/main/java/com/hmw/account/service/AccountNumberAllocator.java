@@ -0,0 +1,63 @@
+package com.hmw.account.service;
+
+import com.hmw.account.repository.AccountNumberSequenceRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out account numbers from blocks reserved through account_number_seq.
+ * Numbers inside a block come from an atomic counter, so only one create per
+ * block touches the database. The block size is the sequence's increment, read
+ * on the first refill, so the two cannot disagree.
+ */
+@Component
+public class AccountNumberAllocator {
+    private final AccountNumberSequenceRepository accountNumberSequenceRepository;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    // guarded by refillLock
+    private int blockSize;
+    private volatile Block block = new Block(0, 0);
+
+    public AccountNumberAllocator(AccountNumberSequenceRepository accountNumberSequenceRepository) {
+        this.accountNumberSequenceRepository = accountNumberSequenceRepository;
+    }
+
+    public String next() {
+        while (true) {
+            Block current = block;
+            long number = current.next.getAndIncrement();
+            if (number < current.end) {
+                return String.valueOf(number);
+            }
+
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (block == exhausted) {
+                if (blockSize == 0) {
+                    blockSize = accountNumberSequenceRepository.blockSize();
+                }
+                long start = accountNumberSequenceRepository.nextBlockStart();
+                block = new Block(start, start + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -1,17 +1,22 @@
 package com.hmw.account.service;
 
+import com.hmw.account.config.CacheConfig;
 import com.hmw.account.domain.Account;
 import com.hmw.account.domain.AccountUser;
 import com.hmw.account.dto.AccountDto;
+import com.hmw.account.dto.AccountSummary;
 import com.hmw.account.exception.AccountException;
 import com.hmw.account.repository.AccountRepository;
 import com.hmw.account.repository.AccountUserRepository;
 import com.hmw.account.type.AccountStatus;
 import com.hmw.account.type.ErrorCode;
-import jakarta.transaction.Transactional;
+import com.hmw.account.type.TransactionMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,6 +29,13 @@ import java.util.stream.Collectors;
 public class AccountService {
     private final AccountRepository accountRepository;
     private final AccountUserRepository accountUserRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private final SubLedgerService subLedgerService;
+    private final LedgerService ledgerService;
+    private final ReplicaReadRouter replicaReadRouter;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
 
     @Transactional
     public AccountDto createAccount(Long userId, Long initialBalance) {
@@ -33,10 +45,8 @@ public class AccountService {
             throw new AccountException(ErrorCode.MAX_ACCOUNT_PER_USER_10);
         }
 
-        String newAccount = accountRepository.findFirstByOrderByIdDesc()
-                .map(account -> Integer.parseInt(account.getAccountNumber()) + 1 + "")
-                .orElse("1000000000");
-
+        String newAccount = accountNumberAllocator.next();
+        replicaReadRouter.recordWrite(userId);
 
         return AccountDto.fromEntity(accountRepository.save(Account.builder()
                 .accountUser(accountUser)
@@ -48,6 +58,7 @@ public class AccountService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNT_OWNERSHIP, key = "#accountNumber")
     public AccountDto deleteAccount(Long userId, String accountNumber) {
         AccountUser accountUser = getAccountUser(userId);
 
@@ -58,20 +69,51 @@ public class AccountService {
         account.setAccountStatus(AccountStatus.UNREGISTERED);
         account.setUnRegisteredAt(LocalDateTime.now());
         accountRepository.save(account);
+        replicaReadRouter.recordWrite(userId);
 
         return AccountDto.fromEntity(account);
     }
 
-    @Transactional
+    /**
+     * Read from the replica, unless the user wrote recently enough that it may not have caught up.
+     */
+    @Transactional(readOnly = true)
     public List<AccountDto> getAccountByUserId(Long userId) {
-        AccountUser accountUser = getAccountUser(userId);
+        if (replicaReadRouter.wroteRecently(userId)) {
+            return replicaReadRouter.onPrimary(() -> getAccountSummaries(userId));
+        }
+        return getAccountSummaries(userId);
+    }
 
-        return accountRepository.findByAccountUser(accountUser)
+    private List<AccountDto> getAccountSummaries(Long userId) {
+        getAccountUser(userId);
+
+        return accountRepository.findSummariesByUserId(userId)
                 .stream()
-                .map(AccountDto::fromEntity)
+                .map(account -> AccountDto.fromSummary(account, currentBalance(account)))
                 .collect(Collectors.toList());
     }
 
+    private Long currentBalance(Account account) {
+        if (transactionMode == TransactionMode.LEDGER) {
+            return ledgerService.getBalance(account);
+        }
+        if (account.isSubLedgered()) {
+            return subLedgerService.getBalance(account);
+        }
+        return account.getBalance();
+    }
+
+    private Long currentBalance(AccountSummary account) {
+        if (transactionMode == TransactionMode.LEDGER) {
+            return ledgerService.getBalance(account);
+        }
+        if (account.isSubLedgered()) {
+            return subLedgerService.getBalance(account);
+        }
+        return account.getBalance();
+    }
+
     private AccountUser getAccountUser(Long userId) {
         return accountUserRepository.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
@@ -86,7 +128,7 @@ public class AccountService {
             throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
 
-        if (account.getBalance() > 0) {
+        if (currentBalance(account) > 0) {
             throw new AccountException(ErrorCode.BALANCE_NOT_EMPTY);
         }
     }
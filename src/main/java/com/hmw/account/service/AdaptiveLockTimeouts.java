@@ -0,0 +1,106 @@
+package com.hmw.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sizes lock wait and lease times from the lock hold times observed per endpoint.
+ * The lease follows the p99 hold time, and the wait grows with the number of
+ * requests already queued for the same account.
+ */
+@Component
+public class AdaptiveLockTimeouts {
+    private static final int WINDOW_SIZE = 1024;
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    private final int minSamples;
+    private final double leaseMultiplier;
+    private final long minLeaseTimeMillis;
+    private final long maxWaitTimeMillis;
+    private final ConcurrentHashMap<String, HoldTimeWindow> windows = new ConcurrentHashMap<>();
+
+    public AdaptiveLockTimeouts(
+            @Value("${account.lock.adaptive.min-samples:100}") int minSamples,
+            @Value("${account.lock.adaptive.lease-multiplier:4}") double leaseMultiplier,
+            @Value("${account.lock.adaptive.min-lease-time:1000}") long minLeaseTimeMillis,
+            @Value("${account.lock.adaptive.max-wait-time:10000}") long maxWaitTimeMillis) {
+        this.minSamples = minSamples;
+        this.leaseMultiplier = leaseMultiplier;
+        this.minLeaseTimeMillis = minLeaseTimeMillis;
+        this.maxWaitTimeMillis = maxWaitTimeMillis;
+    }
+
+    public void recordHoldTime(String endpoint, long holdTimeNanos) {
+        windows.computeIfAbsent(endpoint, key -> new HoldTimeWindow()).record(holdTimeNanos);
+    }
+
+    public long leaseTime(String endpoint, long maxLeaseTimeMillis) {
+        long p99 = p99HoldTimeMillis(endpoint);
+        if (p99 < 0) {
+            return maxLeaseTimeMillis;
+        }
+
+        long leaseTime = Math.max((long) Math.ceil(p99 * leaseMultiplier), minLeaseTimeMillis);
+        return Math.min(leaseTime, maxLeaseTimeMillis);
+    }
+
+    public long waitTime(String endpoint, long minWaitTimeMillis, int queueLength) {
+        long p99 = p99HoldTimeMillis(endpoint);
+        if (p99 < 0) {
+            return minWaitTimeMillis;
+        }
+
+        long waitTime = Math.min(p99 * (queueLength + 1L), maxWaitTimeMillis);
+        return Math.max(waitTime, minWaitTimeMillis);
+    }
+
+    long p99HoldTimeMillis(String endpoint) {
+        HoldTimeWindow window = windows.get(endpoint);
+        if (window == null) {
+            return -1;
+        }
+
+        long p99 = window.p99(minSamples);
+        return p99 < 0 ? -1 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(p99));
+    }
+
+    private static class HoldTimeWindow {
+        private final AtomicLongArray samples = new AtomicLongArray(WINDOW_SIZE);
+        private final AtomicLong count = new AtomicLong();
+        private volatile long cachedP99 = -1;
+        private volatile long cachedAtCount;
+
+        void record(long holdTimeNanos) {
+            long index = count.getAndIncrement();
+            samples.set((int) (index % WINDOW_SIZE), holdTimeNanos);
+        }
+
+        long p99(int minSamples) {
+            long total = count.get();
+            if (total < minSamples) {
+                return -1;
+            }
+            if (cachedP99 >= 0 && total - cachedAtCount < RECOMPUTE_INTERVAL) {
+                return cachedP99;
+            }
+
+            int size = (int) Math.min(total, WINDOW_SIZE);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+
+            long p99 = sorted[(int) Math.ceil(size * 0.99) - 1];
+            cachedAtCount = total;
+            cachedP99 = p99;
+            return p99;
+        }
+    }
+}
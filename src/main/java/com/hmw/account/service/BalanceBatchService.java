@@ -0,0 +1,117 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.exception.GlobalExceptionHandler;
+import com.hmw.account.type.TransactionMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Applies a list of balance mutations grouped by account. Each account's group takes
+ * the account lock once and is validated and saved in one DB transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BalanceBatchService {
+    private static final String ENDPOINT = "BalanceBatchService.apply(..)";
+
+    private final TransactionService transactionService;
+    private final LockService lockService;
+    private final OptimisticRetryPolicy optimisticRetryPolicy;
+    private final LockMetrics lockMetrics;
+    private final ObjectProvider<ShardedBalanceExecutor> shardedBalanceExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    /**
+     * Failed items are answered in the results rather than thrown, so they are counted as
+     * account.errors here instead of in GlobalExceptionHandler.
+     */
+    public List<BalanceMutationResult> apply(List<BalanceMutation> mutations) {
+        List<BalanceMutationResult> results = applyAll(mutations);
+        for (BalanceMutationResult result : results) {
+            if (!result.isSuccess()) {
+                meterRegistry.counter(GlobalExceptionHandler.ERRORS_METER,
+                        "code", result.getError().getErrorCode().name()).increment();
+            }
+        }
+        return results;
+    }
+
+    private List<BalanceMutationResult> applyAll(List<BalanceMutation> mutations) {
+        ShardedBalanceExecutor sharded = shardedBalanceExecutor.getIfAvailable();
+        if (sharded != null) {
+            return sharded.executeAll(mutations);
+        }
+
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < mutations.size(); i++) {
+            groups.computeIfAbsent(mutations.get(i).getAccountNumber(), k -> new ArrayList<>()).add(i);
+        }
+
+        BalanceMutationResult[] results = new BalanceMutationResult[mutations.size()];
+        groups.forEach((accountNumber, indexes) -> {
+            List<BalanceMutationResult> groupResults = applyGroup(
+                    accountNumber, indexes.stream().map(mutations::get).toList());
+
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = groupResults.get(i);
+            }
+        });
+
+        return Arrays.asList(results);
+    }
+
+    private List<BalanceMutationResult> applyGroup(String accountNumber, List<BalanceMutation> group) {
+        try {
+            if (!transactionMode.isAccountLockRequired()) {
+                // Lock-free modes rely on the account version; a conflicting writer rolls back the whole group.
+                return retryOnConflict(() -> transactionService.applyMutations(group));
+            }
+
+            long waitStartedAt = System.nanoTime();
+            try {
+                lockService.lock(accountNumber);
+            } catch (AccountException e) {
+                lockMetrics.recordWait(ENDPOINT, System.nanoTime() - waitStartedAt, false);
+                throw e;
+            }
+            long lockedAt = System.nanoTime();
+            lockMetrics.recordWait(ENDPOINT, lockedAt - waitStartedAt, true);
+
+            try {
+                return transactionService.applyMutations(group);
+            } finally {
+                lockMetrics.recordHold(ENDPOINT, System.nanoTime() - lockedAt);
+                lockService.unlock(accountNumber);
+            }
+        } catch (AccountException e) {
+            log.error("Failed to apply balance batch : {}", accountNumber);
+            return group.stream()
+                    .map(mutation -> BalanceMutationResult.failure(mutation, e))
+                    .toList();
+        }
+    }
+
+    private List<BalanceMutationResult> retryOnConflict(
+            OptimisticRetryPolicy.RetryableCall<List<BalanceMutationResult>> call) {
+        try {
+            return optimisticRetryPolicy.execute(ENDPOINT, call);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
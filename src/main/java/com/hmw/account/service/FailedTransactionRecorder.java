@@ -0,0 +1,173 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.FailedAttempt;
+import com.hmw.account.type.FailureOverflowPolicy;
+import com.hmw.account.type.TransactionType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes F transactions from a bounded queue on one background thread, many per DB transaction,
+ * so a failed request only pays for an enqueue while it holds the account lock.
+ * Stopped after the web server, and drains the queue before returning, so a clean shutdown loses nothing.
+ */
+@Slf4j
+@Component
+public class FailedTransactionRecorder implements SmartLifecycle {
+    // below the web server's own phases, so in-flight requests have finished when this stops
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final TransactionService transactionService;
+    private final BlockingQueue<FailedAttempt> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final FailureOverflowPolicy overflowPolicy;
+    private final AtomicLong pending = new AtomicLong();
+    private final Counter dropped;
+    private final Counter lost;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public FailedTransactionRecorder(
+            TransactionService transactionService,
+            MeterRegistry meterRegistry,
+            @Value("${account.transaction.failure-recorder.capacity:10000}") int capacity,
+            @Value("${account.transaction.failure-recorder.batch-size:500}") int batchSize,
+            @Value("${account.transaction.failure-recorder.flush-interval:200}") long flushIntervalMillis,
+            @Value("${account.transaction.failure-recorder.overflow-policy:CALLER_RUNS}")
+            FailureOverflowPolicy overflowPolicy) {
+        this.transactionService = transactionService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.dropped = meterRegistry.counter("account.failures.dropped");
+        this.lost = meterRegistry.counter("account.failures.lost");
+        meterRegistry.gauge("account.failures.queued", queue, BlockingQueue::size);
+    }
+
+    public void recordUse(String accountNumber, Long amount) {
+        record(TransactionType.USE, accountNumber, amount);
+    }
+
+    public void recordCancel(String accountNumber, Long amount) {
+        record(TransactionType.CANCEL, accountNumber, amount);
+    }
+
+    /**
+     * Waits until everything recorded so far is written. Returns false on timeout.
+     */
+    public boolean awaitWritten(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (pending.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    private void record(TransactionType transactionType, String accountNumber, Long amount) {
+        FailedAttempt attempt = FailedAttempt.builder()
+                .transactionType(transactionType)
+                .accountNumber(accountNumber)
+                .amount(amount)
+                .transactedAt(LocalDateTime.now())
+                .build();
+
+        pending.incrementAndGet();
+        if (running && queue.offer(attempt)) {
+            return;
+        }
+
+        if (running && overflowPolicy == FailureOverflowPolicy.DROP) {
+            pending.decrementAndGet();
+            dropped.increment();
+            log.warn("Failed transaction queue is full, dropped : {}", accountNumber);
+            return;
+        }
+
+        // queue full under CALLER_RUNS, or not running: write it here
+        write(List.of(attempt));
+    }
+
+    private void drainLoop() {
+        List<FailedAttempt> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                FailedAttempt first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<FailedAttempt> attempts) {
+        try {
+            transactionService.saveFailedTransactions(attempts);
+        } catch (RuntimeException e) {
+            lost.increment(attempts.size());
+            log.error("Failed to record {} failed transactions", attempts.size(), e);
+        } finally {
+            pending.addAndGet(-attempts.size());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "failed-transaction-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // anything the writer did not get to, e.g. if it was interrupted
+        List<FailedAttempt> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+}
@@ -0,0 +1,229 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.HotAccount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Space-Saving heavy hitters over account lock attempts, over the current time window and the
+ * one before it, so an account drops out within two windows after it cools down.
+ * A window tracks up to twice {@code capacity} accounts; past that it is trimmed back to the
+ * {@code capacity} most attempted ones, and accounts admitted later start from the largest count
+ * trimmed, so any account with more than 1/capacity of a window's attempts is guaranteed to be
+ * present. Wait time and failures are only known from the moment an account entered the window.
+ * Recording takes no lock; increments racing with a trim of the same account may be lost.
+ */
+@Component
+public class HotAccountTracker {
+    private static final int PUBLISH_INTERVAL = 1024;
+
+    private final int capacity;
+    private final int publishSize;
+    private final long windowNanos;
+    private final AtomicReference<Windows> windows;
+    private final AtomicLong recorded = new AtomicLong();
+    private final MultiGauge attemptsGauge;
+    private final MultiGauge failuresGauge;
+    private final MultiGauge waitGauge;
+
+    public HotAccountTracker(
+            @Value("${account.lock.hot-accounts.capacity:100}") int capacity,
+            @Value("${account.lock.hot-accounts.publish-size:10}") int publishSize,
+            @Value("${account.lock.hot-accounts.window:1m}") Duration window,
+            MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.publishSize = publishSize;
+        this.windowNanos = window.toNanos();
+        this.windows = new AtomicReference<>(new Windows(new Window(capacity), new Window(capacity), System.nanoTime()));
+        this.attemptsGauge = MultiGauge.builder("account.lock.hot.attempts").register(meterRegistry);
+        this.failuresGauge = MultiGauge.builder("account.lock.hot.failures").register(meterRegistry);
+        this.waitGauge = MultiGauge.builder("account.lock.hot.wait.avg")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public void record(String accountNumber, long waitNanos, boolean acquired) {
+        Windows current = windows.get();
+        if (System.nanoTime() - current.startedAt >= windowNanos) {
+            rotate();
+            current = windows.get();
+        }
+        current.current.record(accountNumber, waitNanos, acquired);
+
+        if (recorded.incrementAndGet() % PUBLISH_INTERVAL == 0) {
+            publish();
+        }
+    }
+
+    public List<HotAccount> top(int limit) {
+        Windows current = windows.get();
+        Map<String, HotAccount> merged = new HashMap<>();
+        current.previous.snapshot(merged);
+        current.current.snapshot(merged);
+
+        List<HotAccount> snapshot = new ArrayList<>(merged.values());
+        snapshot.sort(Comparator.comparingLong(HotAccount::getLockAttempts).reversed());
+        return snapshot.subList(0, Math.max(0, Math.min(Math.min(limit, capacity), snapshot.size())));
+    }
+
+    /**
+     * Replaces the gauge rows with the current top accounts. Runs every
+     * {@value #PUBLISH_INTERVAL} records so the account tag set stays small and fresh.
+     */
+    void publish() {
+        List<HotAccount> top = top(publishSize);
+        attemptsGauge.register(rows(top, HotAccount::getLockAttempts), true);
+        failuresGauge.register(rows(top, HotAccount::getLockFailures), true);
+        waitGauge.register(rows(top, HotAccount::getAverageWaitMillis), true);
+    }
+
+    /**
+     * Starts a new window; the one before the current is forgotten.
+     */
+    void rotate() {
+        Windows current = windows.get();
+        windows.compareAndSet(current, new Windows(current.current, new Window(capacity), System.nanoTime()));
+    }
+
+    private static List<MultiGauge.Row<?>> rows(List<HotAccount> top, ToDoubleFunction<HotAccount> value) {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(top.size());
+        for (HotAccount hotAccount : top) {
+            rows.add(MultiGauge.Row.of(
+                    Tags.of("account", hotAccount.getAccountNumber()),
+                    value.applyAsDouble(hotAccount)));
+        }
+        return rows;
+    }
+
+    private record Windows(Window previous, Window current, long startedAt) {
+    }
+
+    private static class Window {
+        private final int capacity;
+        private final ConcurrentHashMap<String, Counter> counters;
+        private final ReentrantLock trimming = new ReentrantLock();
+        // largest count trimmed so far, what a newly admitted account may already have had
+        private volatile long floor;
+
+        Window(int capacity) {
+            this.capacity = capacity;
+            this.counters = new ConcurrentHashMap<>(capacity * 4);
+        }
+
+        void record(String accountNumber, long waitNanos, boolean acquired) {
+            Counter counter = counters.get(accountNumber);
+            if (counter == null) {
+                if (counters.size() >= capacity * 2) {
+                    trim();
+                }
+                counter = counters.computeIfAbsent(accountNumber, k -> new Counter(floor));
+            }
+
+            counter.attempts.increment();
+            counter.waitNanos.add(waitNanos);
+            counter.maxWaitNanos.accumulate(waitNanos);
+            if (!acquired) {
+                counter.failures.increment();
+            }
+        }
+
+        /**
+         * Keeps the {@code capacity} most attempted accounts. Sorting once per {@code capacity}
+         * admissions instead of scanning for the minimum on each; whoever finds a trim already
+         * running just goes on.
+         */
+        private void trim() {
+            if (!trimming.tryLock()) {
+                return;
+            }
+            try {
+                if (counters.size() < capacity * 2) {
+                    return;
+                }
+
+                // counts keep moving while sorting, so sort a snapshot of them
+                List<Map.Entry<String, Long>> entries = new ArrayList<>(counters.size());
+                counters.forEach((accountNumber, counter) -> entries.add(Map.entry(accountNumber, counter.attempts())));
+                entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+                long trimmedMax = floor;
+                for (Map.Entry<String, Long> entry : entries.subList(capacity, entries.size())) {
+                    counters.remove(entry.getKey());
+                    trimmedMax = Math.max(trimmedMax, entry.getValue());
+                }
+                floor = trimmedMax;
+            } finally {
+                trimming.unlock();
+            }
+        }
+
+        void snapshot(Map<String, HotAccount> merged) {
+            counters.forEach((accountNumber, counter) ->
+                    merged.merge(accountNumber, counter.toHotAccount(accountNumber), Counter::add));
+        }
+    }
+
+    private static class Counter {
+        private final long overestimation;
+        private final LongAdder attempts = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        Counter(long overestimation) {
+            this.overestimation = overestimation;
+        }
+
+        long attempts() {
+            return overestimation + attempts.sum();
+        }
+
+        private HotAccount toHotAccount(String accountNumber) {
+            long observed = attempts.sum();
+            return HotAccount.builder()
+                    .accountNumber(accountNumber)
+                    .lockAttempts(attempts())
+                    .overestimation(overestimation)
+                    .lockFailures(failures.sum())
+                    .averageWaitMillis(observed == 0 ? 0 : toMillis(waitNanos.sum()) / observed)
+                    .maxWaitMillis(toMillis(maxWaitNanos.get()))
+                    .build();
+        }
+
+        private static HotAccount add(HotAccount previous, HotAccount current) {
+            long previousObserved = previous.getLockAttempts() - previous.getOverestimation();
+            long currentObserved = current.getLockAttempts() - current.getOverestimation();
+            long observed = previousObserved + currentObserved;
+            return HotAccount.builder()
+                    .accountNumber(current.getAccountNumber())
+                    .lockAttempts(previous.getLockAttempts() + current.getLockAttempts())
+                    .overestimation(previous.getOverestimation() + current.getOverestimation())
+                    .lockFailures(previous.getLockFailures() + current.getLockFailures())
+                    .averageWaitMillis(observed == 0 ? 0 : (previous.getAverageWaitMillis() * previousObserved
+                            + current.getAverageWaitMillis() * currentObserved) / observed)
+                    .maxWaitMillis(Math.max(previous.getMaxWaitMillis(), current.getMaxWaitMillis()))
+                    .build();
+        }
+
+        private static double toMillis(long nanos) {
+            return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account locks held inside this JVM only.
+ * Meant for single-node deployments where no other process mutates the same accounts.
+ * The lease time is ignored since a holder can only disappear together with this JVM.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "account.lock.backend", havingValue = "memory")
+public class InMemoryLockService implements LockService {
+    private final AccountLockRegistry localLocks = new AccountLockRegistry();
+
+    @Override
+    public void lock(String accountNumber, long waitTimeMillis, long leaseTimeMillis) {
+        log.debug("Trying lock for accountNumber : {}", accountNumber);
+
+        try {
+            if (!localLocks.tryLock(accountNumber, waitTimeMillis, TimeUnit.MILLISECONDS)) {
+                log.error("=======Lock acquisition failed======");
+                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+    }
+
+    @Override
+    public void unlock(String accountNumber) {
+        log.debug("Unlock for accountNumber : {}", accountNumber);
+        localLocks.unlock(accountNumber);
+    }
+
+    @Override
+    public int getQueueLength(String accountNumber) {
+        return localLocks.getQueueLength(accountNumber);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.LedgerActivity;
+import com.hmw.account.repository.LedgerEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Checkpoints, in LEDGER mode, the accounts that received entries since the last run,
+ * at most batch-size accounts per run. Entries committed late with a lower id are folded
+ * in with the account's next checkpoint; balances never depend on checkpoints being current.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.transaction.mode", havingValue = "LEDGER")
+public class LedgerCheckpointer {
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerService ledgerService;
+    private final int batchSize;
+
+    private long lastEntryId;
+
+    public LedgerCheckpointer(
+            LedgerEntryRepository ledgerEntryRepository,
+            LedgerService ledgerService,
+            @Value("${account.transaction.ledger.checkpoint-batch-size:500}") int batchSize) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerService = ledgerService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${account.transaction.ledger.checkpoint-interval:1000}")
+    public void checkpoint() {
+        List<LedgerActivity> activities =
+                ledgerEntryRepository.findActivityAfter(lastEntryId, Limit.of(batchSize));
+
+        for (LedgerActivity activity : activities) {
+            try {
+                ledgerService.checkpoint(activity.getAccountId());
+            } catch (RuntimeException e) {
+                log.warn("Failed to checkpoint account {}", activity.getAccountId(), e);
+            }
+            lastEntryId = activity.getLastEntryId();
+        }
+    }
+}
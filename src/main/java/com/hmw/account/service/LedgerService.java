@@ -0,0 +1,155 @@
+package com.hmw.account.service;
+
+import com.hmw.account.domain.Account;
+import com.hmw.account.domain.AccountCheckpoint;
+import com.hmw.account.domain.LedgerEntry;
+import com.hmw.account.dto.AccountSummary;
+import com.hmw.account.dto.LedgerPosition;
+import com.hmw.account.dto.LedgerVerification;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.AccountCheckpointRepository;
+import com.hmw.account.repository.AccountRepository;
+import com.hmw.account.repository.LedgerEntryRepository;
+import com.hmw.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * LEDGER mode balances: the account row holds a checkpoint (balance as of checkpointSequence)
+ * and every change after it is a LedgerEntry, so the balance is the checkpoint plus the deltas since.
+ * Writes append only; the account row is touched by the background checkpoint alone.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+    private final AccountRepository accountRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountCheckpointRepository accountCheckpointRepository;
+
+    public Long getBalance(Account account) {
+        return account.getBalance() + positionSinceCheckpoint(account).getDelta();
+    }
+
+    public Long getBalance(AccountSummary account) {
+        long checkpointSequence = account.getCheckpointSequence() == null ? 0L : account.getCheckpointSequence();
+        return account.getBalance() + ledgerEntryRepository
+                .findPosition(account.getAccountId(), checkpointSequence, Long.MAX_VALUE)
+                .getDelta();
+    }
+
+    /**
+     * Appends a change and returns the balance right after it. Runs in the caller's transaction;
+     * a concurrent append that took the same sequence surfaces as an optimistic conflict.
+     */
+    public Long append(Account account, Long delta) {
+        LedgerPosition position = positionSinceCheckpoint(account);
+        long balance = account.getBalance() + position.getDelta() + delta;
+        if (balance < 0) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+
+        try {
+            ledgerEntryRepository.saveAndFlush(LedgerEntry.builder()
+                    .account(account)
+                    .sequence(position.getLastSequence() + 1)
+                    .delta(delta)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException(
+                    "Ledger sequence already taken : " + account.getAccountNumber(), e);
+        }
+
+        return balance;
+    }
+
+    /**
+     * Folds the entries after the account's checkpoint into a new one.
+     * Returns false when there was nothing to fold or another node got there first.
+     */
+    @Transactional
+    public boolean checkpoint(Long accountId) {
+        Optional<Account> found = accountRepository.findById(accountId);
+        if (found.isEmpty()) {
+            return false;
+        }
+
+        Account account = found.get();
+        long from = checkpointSequence(account);
+        LedgerPosition position = ledgerEntryRepository.findPosition(accountId, from, Long.MAX_VALUE);
+        if (position.getLastSequence() == from) {
+            return false;
+        }
+
+        long balance = account.getBalance() + position.getDelta();
+        if (accountRepository.checkpoint(accountId, from, position.getLastSequence(), balance) == 0) {
+            return false;
+        }
+
+        if (from == 0) {
+            // the balance the ledger started from, so the first checkpoint can be verified too
+            accountCheckpointRepository.save(checkpointOf(account, 0L, account.getBalance()));
+        }
+        accountCheckpointRepository.save(checkpointOf(account, position.getLastSequence(), balance));
+        return true;
+    }
+
+    /**
+     * Recomputes the account row's checkpoint from the nearest earlier recorded one,
+     * and reports the current balance next to it. Read-only, so it may run on a lagging replica.
+     */
+    @Transactional(readOnly = true)
+    public LedgerVerification verify(String accountNumber) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        long checkpointSequence = checkpointSequence(account);
+        LedgerPosition current = positionSinceCheckpoint(account);
+
+        Long baseSequence = null;
+        Long rebuilt = null;
+        Optional<AccountCheckpoint> base = accountCheckpointRepository
+                .findBefore(account.getId(), checkpointSequence, Limit.of(1))
+                .stream()
+                .findFirst();
+        if (base.isPresent()) {
+            baseSequence = base.get().getSequence();
+            rebuilt = base.get().getBalance() + ledgerEntryRepository
+                    .findPosition(account.getId(), baseSequence, checkpointSequence)
+                    .getDelta();
+        }
+
+        return LedgerVerification.builder()
+                .accountNumber(accountNumber)
+                .balance(account.getBalance() + current.getDelta())
+                .lastSequence(current.getLastSequence())
+                .checkpointSequence(checkpointSequence)
+                .checkpointBalance(account.getBalance())
+                .baseSequence(baseSequence)
+                .rebuiltCheckpointBalance(rebuilt)
+                .consistent(rebuilt == null || Objects.equals(rebuilt, account.getBalance()))
+                .build();
+    }
+
+    private LedgerPosition positionSinceCheckpoint(Account account) {
+        return ledgerEntryRepository.findPosition(account.getId(), checkpointSequence(account), Long.MAX_VALUE);
+    }
+
+    private static long checkpointSequence(Account account) {
+        return account.getCheckpointSequence() == null ? 0L : account.getCheckpointSequence();
+    }
+
+    private static AccountCheckpoint checkpointOf(Account account, Long sequence, Long balance) {
+        return AccountCheckpoint.builder()
+                .account(account)
+                .sequence(sequence)
+                .balance(balance)
+                .build();
+    }
+}
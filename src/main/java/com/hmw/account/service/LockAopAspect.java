@@ -1,12 +1,15 @@
 package com.hmw.account.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.aop.AccountLock;
 import com.hmw.account.aop.AccountLockIdInterface;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.TransactionMode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Aspect
@@ -15,18 +18,81 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class LockAopAspect {
     private final LockService lockService;
+    private final AdaptiveLockTimeouts adaptiveLockTimeouts;
+    private final OptimisticRetryPolicy optimisticRetryPolicy;
+    private final LockMetrics lockMetrics;
+    private final HotAccountTracker hotAccountTracker;
 
-    @Around("@annotation(com.hmw.account.aop.AccountLock) && args(request)")
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    @Around("@annotation(accountLock) && args(request)")
     public Object aroundMethod(ProceedingJoinPoint pjp,
+                               AccountLock accountLock,
                                AccountLockIdInterface request
     ) throws Throwable {
+        String endpoint = pjp.getSignature().toShortString();
+        long startedAt = System.nanoTime();
+        String outcome = "success";
+
+        try {
+            return proceed(pjp, accountLock, request, endpoint);
+        } catch (AccountException e) {
+            outcome = e.getErrorCode().name();
+            throw e;
+        } catch (Throwable t) {
+            outcome = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            lockMetrics.recordEndpoint(endpoint, transactionMode.name(), outcome, System.nanoTime() - startedAt);
+        }
+    }
 
-        lockService.lock(request.getAccountNumber());
+    private Object proceed(ProceedingJoinPoint pjp,
+                           AccountLock accountLock,
+                           AccountLockIdInterface request,
+                           String endpoint) throws Throwable {
+        if (transactionMode.isRetriedOnConflict()) {
+            return optimisticRetryPolicy.execute(endpoint, pjp::proceed);
+        }
+        if (!transactionMode.isAccountLockRequired()) {
+            return pjp.proceed();
+        }
+
+        String accountNumber = request.getAccountNumber();
+
+        long waitTime = accountLock.tryLockTime();
+        long leaseTime = accountLock.leaseTime();
+        if (accountLock.adaptive()) {
+            waitTime = adaptiveLockTimeouts.waitTime(
+                    endpoint, waitTime, lockService.getQueueLength(accountNumber));
+            leaseTime = adaptiveLockTimeouts.leaseTime(endpoint, leaseTime);
+        }
+
+        long waitStartedAt = System.nanoTime();
+        try {
+            lockService.lock(accountNumber, waitTime, leaseTime);
+        } catch (AccountException e) {
+            long waited = System.nanoTime() - waitStartedAt;
+            lockMetrics.recordWait(endpoint, waited, false);
+            hotAccountTracker.record(accountNumber, waited, false);
+            throw e;
+        }
+        long lockedAt = System.nanoTime();
+        lockMetrics.recordWait(endpoint, lockedAt - waitStartedAt, true);
 
         try {
             return pjp.proceed();
         } finally {
-            lockService.unlock(request.getAccountNumber());
+            long holdTime = System.nanoTime() - lockedAt;
+            adaptiveLockTimeouts.recordHoldTime(endpoint, holdTime);
+            lockMetrics.recordHold(endpoint, holdTime);
+            try {
+                lockService.unlock(accountNumber);
+            } finally {
+                // kept out of the locked section, it only feeds /actuator/hotaccounts
+                hotAccountTracker.record(accountNumber, lockedAt - waitStartedAt, true);
+            }
         }
     }
 }
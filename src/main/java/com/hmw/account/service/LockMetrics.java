@@ -0,0 +1,38 @@
+package com.hmw.account.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers around account locking, tagged by the endpoint that took the lock:
+ * account.lock.wait (time to acquire or give up), account.lock.hold (time the lock
+ * was held) and account.endpoint (the whole locked call, waiting included).
+ */
+@Component
+@RequiredArgsConstructor
+public class LockMetrics {
+    private final MeterRegistry meterRegistry;
+
+    public void recordWait(String endpoint, long nanos, boolean acquired) {
+        meterRegistry.timer("account.lock.wait",
+                        "endpoint", endpoint,
+                        "outcome", acquired ? "acquired" : "rejected")
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHold(String endpoint, long nanos) {
+        meterRegistry.timer("account.lock.hold", "endpoint", endpoint)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEndpoint(String endpoint, String mode, String outcome, long nanos) {
+        meterRegistry.timer("account.endpoint",
+                        "endpoint", endpoint,
+                        "mode", mode,
+                        "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,43 +1,19 @@
 package com.hmw.account.service;
-import com.hmw.account.exception.AccountException;
-import com.hmw.account.type.ErrorCode;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
-import org.springframework.stereotype.Service;
 
-import java.util.concurrent.TimeUnit;
+public interface LockService {
+    long DEFAULT_WAIT_TIME_MILLIS = 1000L;
+    long DEFAULT_LEASE_TIME_MILLIS = 5000L;
 
-@Slf4j
-@Service
-@RequiredArgsConstructor
-public class LockService {
-    private final RedissonClient redissonClient;
+    void lock(String accountNumber, long waitTimeMillis, long leaseTimeMillis);
 
-    public void lock(String accountNumber) {
-        RLock lock = redissonClient.getLock(getLockKey(accountNumber));
-        log.debug("Trying lock for accountNumber : {}", accountNumber);
+    void unlock(String accountNumber);
 
-        try {
-            boolean isLock = lock.tryLock(1, 5, TimeUnit.SECONDS);
-            if (!isLock) {
-                log.error("=======Lock acquisition failed======");
-                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
-            }
-        } catch (AccountException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("Redis lock failed", e);
-        }
-    }
-
-    public void unlock(String accountNumber) {
-        log.debug("Unlock for accountNumber : {}", accountNumber);
-        redissonClient.getLock(getLockKey(accountNumber)).unlock();
-    }
+    /**
+     * Number of requests on this node currently waiting for the account's lock.
+     */
+    int getQueueLength(String accountNumber);
 
-    private String getLockKey(String accountNumber) {
-        return "ACLK:";
+    default void lock(String accountNumber) {
+        lock(accountNumber, DEFAULT_WAIT_TIME_MILLIS, DEFAULT_LEASE_TIME_MILLIS);
     }
 }
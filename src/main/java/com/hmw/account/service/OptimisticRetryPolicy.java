@@ -0,0 +1,66 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Re-runs a call that lost an optimistic version check, with full-jitter
+ * exponential backoff, and counts conflicts and retries per endpoint.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryPolicy {
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${account.transaction.optimistic.max-attempts:5}") int maxAttempts,
+            @Value("${account.transaction.optimistic.base-backoff:5}") long baseBackoffMillis,
+            @Value("${account.transaction.optimistic.max-backoff:100}") long maxBackoffMillis) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(String endpoint, RetryableCall<T> call) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call.call();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("account.optimistic.conflicts", "endpoint", endpoint).increment();
+
+                if (attempt >= maxAttempts) {
+                    log.error("Optimistic update failed after {} attempts : {}", attempt, endpoint);
+                    meterRegistry.counter("account.optimistic.exhausted", "endpoint", endpoint).increment();
+                    throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+                }
+
+                meterRegistry.counter("account.optimistic.retries", "endpoint", endpoint).increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) throws InterruptedException {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling > 0) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        }
+    }
+
+    @FunctionalInterface
+    public interface RetryableCall<T> {
+        T call() throws Throwable;
+    }
+}
@@ -0,0 +1,122 @@
+package com.hmw.account.service;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.lock.backend", havingValue = "redisson", matchIfMissing = true)
+public class RedissonLockService implements LockService {
+    // shared with the reactive stack, so both serialize on the same Redis lock
+    public static final String LOCK_KEY_PREFIX = "ACLK:";
+
+    private final RedissonClient redissonClient;
+    private final AccountLockRegistry localLocks = new AccountLockRegistry();
+
+    @Override
+    public void lock(String accountNumber, long waitTimeMillis, long leaseTimeMillis) {
+        String lockKey = getLockKey(accountNumber);
+        log.debug("Trying lock for accountNumber : {}", accountNumber);
+
+        // Requests for the same account queue locally first, so only one per node talks to Redis.
+        long waitNanos = TimeUnit.MILLISECONDS.toNanos(waitTimeMillis);
+        long startedAt = System.nanoTime();
+        try {
+            if (!localLocks.tryLock(lockKey, waitNanos, TimeUnit.NANOSECONDS)) {
+                log.error("=======Local lock acquisition failed======");
+                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+
+        RLock lock = redissonClient.getLock(lockKey);
+        long ownerId = ownerId();
+        long remainingNanos = Math.max(0, waitNanos - (System.nanoTime() - startedAt));
+        RFuture<Boolean> locking = lock.tryLockAsync(remainingNanos,
+                TimeUnit.MILLISECONDS.toNanos(leaseTimeMillis), TimeUnit.NANOSECONDS, ownerId);
+        try {
+            boolean isLock = await(locking);
+            if (!isLock) {
+                localLocks.unlock(lockKey);
+                log.error("=======Lock acquisition failed======");
+                throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // the attempt is still running in Redis; whatever it takes, give back
+            locking.thenAccept(locked -> {
+                if (locked) {
+                    lock.unlockAsync(ownerId);
+                }
+            });
+            localLocks.unlock(lockKey);
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        } catch (AccountException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Redis lock failed", e);
+        }
+    }
+
+    @Override
+    public void unlock(String accountNumber) {
+        String lockKey = getLockKey(accountNumber);
+        log.debug("Unlock for accountNumber : {}", accountNumber);
+
+        try {
+            await(redissonClient.getLock(lockKey).unlockAsync(ownerId()));
+        } catch (IllegalMonitorStateException e) {
+            // the work has committed by now; a lease that ran out must not turn it into a failure
+            log.error("Lock lease expired before unlock for accountNumber : {}", accountNumber);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while unlocking, the lease releases the Redis lock", e);
+        } finally {
+            localLocks.unlock(lockKey);
+        }
+    }
+
+    @Override
+    public int getQueueLength(String accountNumber) {
+        return localLocks.getQueueLength(getLockKey(accountNumber));
+    }
+
+    private String getLockKey(String accountNumber) {
+        return LOCK_KEY_PREFIX + accountNumber;
+    }
+
+    /**
+     * The request owns the lock: one thread per request, platform or virtual, so its id is the
+     * request's. Passed explicitly because the async calls complete on Redisson's event loop.
+     */
+    private static long ownerId() {
+        return Thread.currentThread().threadId();
+    }
+
+    /**
+     * Parks until Redis answers. Unlike Redisson's blocking calls, this never holds a monitor,
+     * so a virtual thread waiting here leaves its carrier thread free.
+     */
+    private static <T> T await(RFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
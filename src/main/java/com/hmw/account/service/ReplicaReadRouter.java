@@ -0,0 +1,103 @@
+package com.hmw.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hmw.account.domain.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes on top of replica routing. Read-only transactions go to the replica, unless
+ * the read runs inside {@link #onPrimary} — for users who wrote within the replica's max lag,
+ * or for a point lookup the replica did not have yet. Recent writers are tracked per node,
+ * so a client is only guaranteed to see its own writes when it stays on the node it wrote through.
+ */
+@Component
+public class ReplicaReadRouter {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final boolean replicaEnabled;
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReplicaReadRouter(
+            @Value("${account.datasource.replica.enabled:false}") boolean replicaEnabled,
+            @Value("${account.datasource.replica.max-lag:2s}") Duration maxLag,
+            @Value("${account.datasource.replica.max-tracked-writers:100000}") long maxTrackedWriters) {
+        this.replicaEnabled = replicaEnabled;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxTrackedWriters)
+                .expireAfterWrite(maxLag)
+                .build();
+    }
+
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    /**
+     * Runs the read against the primary. Must be called before the surrounding transaction,
+     * if any, has issued a statement, since the connection is chosen at the first one.
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        if (!replicaEnabled || isPrimaryRequired()) {
+            return read.get();
+        }
+
+        PRIMARY_REQUIRED.set(true);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Point lookup that asks the primary when the replica has no row yet, e.g. for a transaction
+     * created a moment ago. Call it outside a transaction, so each attempt gets its own connection.
+     */
+    public <T> Optional<T> findWithPrimaryFallback(Supplier<Optional<T>> find) {
+        Optional<T> found = find.get();
+        if (found.isPresent() || !replicaEnabled) {
+            return found;
+        }
+        return onPrimary(find);
+    }
+
+    public boolean wroteRecently(Long userId) {
+        return replicaEnabled && recentWriters.getIfPresent(userId) != null;
+    }
+
+    public void recordWrite(Account account) {
+        if (replicaEnabled) {
+            recordWrite(account.getAccountUser().getId());
+        }
+    }
+
+    /**
+     * Marks the user as a recent writer once the current transaction commits,
+     * so the max lag window starts when the replica can first see the change.
+     */
+    public void recordWrite(Long userId) {
+        if (!replicaEnabled) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recentWriters.put(userId, Boolean.TRUE);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+}
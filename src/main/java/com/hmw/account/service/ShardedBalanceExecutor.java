@@ -0,0 +1,249 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs balance mutations on single-threaded shards chosen by account number.
+ * Every account belongs to exactly one shard on this node, so mutations need no
+ * account lock, and whatever a shard has queued is committed in one DB transaction.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.transaction.mode", havingValue = "SHARDED")
+public class ShardedBalanceExecutor {
+    private final TransactionService transactionService;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final Shard[] shards;
+
+    public ShardedBalanceExecutor(
+            TransactionService transactionService,
+            @Value("${account.transaction.sharded.shards:4}") int shardCount,
+            @Value("${account.transaction.sharded.queue-capacity:1024}") int queueCapacity,
+            @Value("${account.transaction.sharded.max-batch-size:64}") int maxBatchSize,
+            @Value("${account.transaction.sharded.timeout:10000}") long timeoutMillis) {
+        this.transactionService = transactionService;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+        }
+        for (Shard shard : shards) {
+            shard.thread.join(timeoutMillis);
+            shard.failPending();
+        }
+    }
+
+    public TransactionDto execute(BalanceMutation mutation) {
+        return await(submit(mutation), TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Queues every mutation before waiting on any of them, so the shards can commit
+     * the whole list in as few transactions as possible. Results keep the input order.
+     */
+    public List<BalanceMutationResult> executeAll(List<BalanceMutation> mutations) {
+        List<PendingMutation> pendings = new ArrayList<>(mutations.size());
+        for (BalanceMutation mutation : mutations) {
+            try {
+                pendings.add(submit(mutation));
+            } catch (AccountException e) {
+                pendings.add(PendingMutation.rejected(mutation, e));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<BalanceMutationResult> results = new ArrayList<>(mutations.size());
+        for (int i = 0; i < mutations.size(); i++) {
+            try {
+                results.add(BalanceMutationResult.success(
+                        mutations.get(i), await(pendings.get(i), deadline - System.nanoTime())));
+            } catch (AccountException e) {
+                results.add(BalanceMutationResult.failure(mutations.get(i), e));
+            }
+        }
+
+        return results;
+    }
+
+    private PendingMutation submit(BalanceMutation mutation) {
+        PendingMutation pending = new PendingMutation(mutation);
+        if (!shardOf(mutation.getAccountNumber()).queue.offer(pending)) {
+            log.error("Shard queue is full : {}", mutation.getAccountNumber());
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+        return pending;
+    }
+
+    private TransactionDto await(PendingMutation pending, long timeoutNanos) {
+        try {
+            return pending.future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } catch (TimeoutException e) {
+            return abandon(pending);
+        } catch (InterruptedException e) {
+            try {
+                return abandon(pending);
+            } finally {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gives up on a mutation the shard has not taken yet, so it is never applied. One the shard
+     * has taken is already being committed and its outcome is what the caller must see.
+     */
+    private TransactionDto abandon(PendingMutation pending) {
+        if (pending.claim()) {
+            pending.future.cancel(false);
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return pending.future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof AccountException accountException) {
+            return accountException;
+        }
+        return new IllegalStateException("Balance mutation failed", e.getCause());
+    }
+
+    int shardIndex(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), shards.length);
+    }
+
+    private Shard shardOf(String accountNumber) {
+        return shards[shardIndex(accountNumber)];
+    }
+
+    private static class PendingMutation {
+        private final BalanceMutation mutation;
+        private final CompletableFuture<TransactionDto> future = new CompletableFuture<>();
+        // taken either by the shard to apply it or by a caller that stopped waiting, never both
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        PendingMutation(BalanceMutation mutation) {
+            this.mutation = mutation;
+        }
+
+        static PendingMutation rejected(BalanceMutation mutation, AccountException e) {
+            PendingMutation pending = new PendingMutation(mutation);
+            pending.claim();
+            pending.future.completeExceptionally(e);
+            return pending;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private class Shard implements Runnable {
+        private final BlockingQueue<PendingMutation> queue;
+        private final Thread thread;
+
+        Shard(int index, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "balance-shard-" + index);
+        }
+
+        @Override
+        public void run() {
+            List<PendingMutation> batch = new ArrayList<>(maxBatchSize);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                queue.drainTo(batch, maxBatchSize - 1);
+                apply(batch);
+                batch.clear();
+            }
+        }
+
+        private void apply(List<PendingMutation> batch) {
+            // whatever a caller has given up on is dropped unwritten
+            batch.removeIf(pending -> !pending.claim());
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                List<BalanceMutationResult> results = transactionService.applyMutations(
+                        batch.stream().map(pending -> pending.mutation).toList());
+
+                for (int i = 0; i < batch.size(); i++) {
+                    BalanceMutationResult result = results.get(i);
+                    if (result.isSuccess()) {
+                        batch.get(i).future.complete(result.getTransaction());
+                    } else {
+                        batch.get(i).future.completeExceptionally(result.getError());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Balance mutation batch failed", e);
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            }
+        }
+
+        private void failPending() {
+            PendingMutation pending;
+            while ((pending = queue.poll()) != null) {
+                pending.claim();
+                pending.future.completeExceptionally(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.hmw.account.service;
+
+import com.hmw.account.config.CacheConfig;
+import com.hmw.account.domain.Account;
+import com.hmw.account.domain.AccountBalanceSlot;
+import com.hmw.account.domain.AccountUser;
+import com.hmw.account.dto.AccountDto;
+import com.hmw.account.dto.AccountSummary;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.AccountBalanceSlotRepository;
+import com.hmw.account.repository.AccountRepository;
+import com.hmw.account.repository.AccountUserRepository;
+import com.hmw.account.type.AccountStatus;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionMode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Balances of hot accounts split across several slot rows. The account's balance is
+ * account.balance plus the sum of its slots; a debit takes the whole amount from one
+ * slot that can cover it, and only when none can are the slots locked and evened out.
+ * The caller's transaction is joined, so the balance checks of TransactionService apply.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubLedgerService {
+    public static final int MAX_BALANCE_SLOTS = 64;
+
+    private final AccountRepository accountRepository;
+    private final AccountUserRepository accountUserRepository;
+    private final AccountBalanceSlotRepository accountBalanceSlotRepository;
+    private final LockService lockService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
+
+    /**
+     * Debits the account and returns its balance right after, as far as this transaction can see.
+     * Slots are read without locks first and only those that looked large enough are updated.
+     * Rebalancing locks every slot, so it only runs when no update was attempted: a failed guarded
+     * UPDATE may still hold its row lock, and two rebalances holding one slot each would deadlock.
+     */
+    public Long useBalance(Account account, Long amount) {
+        List<Long> balances = accountBalanceSlotRepository.findBalances(account.getId());
+        long total = balances.stream().mapToLong(Long::longValue).sum();
+        int slots = balances.size();
+        int start = slots == 0 ? 0 : ThreadLocalRandom.current().nextInt(slots);
+        boolean attempted = false;
+
+        for (int i = 0; i < slots; i++) {
+            int slot = (start + i) % slots;
+            if (balances.get(slot) >= amount) {
+                attempted = true;
+                if (accountBalanceSlotRepository.useIfSufficient(account.getId(), slot, amount) == 1) {
+                    return account.getBalance() + total - amount;
+                }
+            }
+        }
+
+        if (attempted) {
+            // every slot that could cover the amount was drained meanwhile; the caller may retry
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+
+        return rebalanceAndUse(account, amount);
+    }
+
+    /**
+     * Credits a random slot and returns the balance right after.
+     */
+    public Long cancelBalance(Account account, Long amount) {
+        if (amount < 0) {
+            throw new AccountException(ErrorCode.INVALID_REQUESTS);
+        }
+
+        int slot = ThreadLocalRandom.current().nextInt(account.getBalanceSlots());
+        accountBalanceSlotRepository.cancel(account.getId(), slot, amount);
+        return getBalance(account);
+    }
+
+    public Long getBalance(Account account) {
+        return account.getBalance() + accountBalanceSlotRepository.sumBalance(account.getId());
+    }
+
+    public Long getBalance(AccountSummary account) {
+        return account.getBalance() + accountBalanceSlotRepository.sumBalance(account.getAccountId());
+    }
+
+    /**
+     * Moves the whole balance into {@code slots} rows, or back into the account row for 1.
+     * Takes the account lock itself, held until the commit, since only LOCKED mode locks the
+     * endpoint. Writers of the other modes are kept off by the row locks instead: the account
+     * row is locked and its version bumped, and slot writers that picked a slot before this
+     * commits find it gone and fail with ACCOUNT_TRANSACTION_LOCK.
+     */
+    @CacheEvict(cacheNames = CacheConfig.ACCOUNT_OWNERSHIP, key = "#accountNumber")
+    public AccountDto resize(Long userId, String accountNumber, int slots) {
+        // the ledger already keeps writers off the account row
+        if (transactionMode == TransactionMode.LEDGER || slots < 1 || slots > MAX_BALANCE_SLOTS) {
+            throw new AccountException(ErrorCode.INVALID_REQUESTS);
+        }
+
+        lockService.lock(accountNumber);
+        try {
+            return transactionTemplate.execute(status -> moveBalance(userId, accountNumber, slots));
+        } finally {
+            lockService.unlock(accountNumber);
+        }
+    }
+
+    private AccountDto moveBalance(Long userId, String accountNumber, int slots) {
+        AccountUser accountUser = accountUserRepository.findById(userId)
+                .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+
+        Account account = accountRepository.findLockedByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        if (!Objects.equals(accountUser.getId(), account.getAccountUser().getId())) {
+            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+        accountBalanceSlotRepository.lockAll(account.getId());
+        long balance = account.getBalance() + accountBalanceSlotRepository.sumBalance(account.getId());
+        accountBalanceSlotRepository.deleteByAccountId(account.getId());
+
+        if (slots == 1) {
+            account.setBalance(balance);
+            account.setBalanceSlots(null);
+        } else {
+            List<AccountBalanceSlot> balanceSlots = new ArrayList<>(slots);
+            for (int slot = 0; slot < slots; slot++) {
+                balanceSlots.add(AccountBalanceSlot.builder()
+                        .account(account)
+                        .slotIndex(slot)
+                        .balance(share(balance, slots, slot))
+                        .build());
+            }
+            accountBalanceSlotRepository.saveAll(balanceSlots);
+            account.setBalance(0L);
+            account.setBalanceSlots(slots);
+        }
+
+        AccountDto accountDto = AccountDto.fromEntity(account);
+        accountDto.setBalance(balance);
+        return accountDto;
+    }
+
+    private Long rebalanceAndUse(Account account, Long amount) {
+        // in slot order, while holding no other slot, so concurrent rebalances queue instead of deadlocking;
+        // the rows locked are the slots now, a resize may have committed since the account was read
+        int slots = accountBalanceSlotRepository.lockAll(account.getId());
+        if (slots == 0) {
+            // folded back into the account row meanwhile; the caller may retry
+            throw new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK);
+        }
+
+        long remaining = accountBalanceSlotRepository.sumBalance(account.getId()) - amount;
+        if (remaining < 0) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+
+        for (int slot = 0; slot < slots; slot++) {
+            accountBalanceSlotRepository.setBalance(account.getId(), slot, share(remaining, slots, slot));
+        }
+
+        return account.getBalance() + remaining;
+    }
+
+    private static long share(long balance, int slots, int slot) {
+        return balance / slots + (slot < balance % slots ? 1 : 0);
+    }
+}
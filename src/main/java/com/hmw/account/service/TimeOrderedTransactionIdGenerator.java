@@ -0,0 +1,53 @@
+package com.hmw.account.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 48-bit epoch millis, 16-bit node id, 64 random bits.
+ * Ids sort by creation time, so inserts land at the right edge of the transaction_id
+ * index. The low half is drawn anew for every id, so one id tells nothing about the ids
+ * next to it: transactions are looked up by id alone, the id must not be enumerable.
+ * ThreadLocalRandom keeps the hot path free of SecureRandom's lock; two ids of one node
+ * only collide when they share the millisecond and all 64 bits.
+ */
+@Component
+@ConditionalOnProperty(name = "account.transaction.id-generator", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedTransactionIdGenerator implements TransactionIdGenerator {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final long nodeId;
+
+    /**
+     * @param nodeId 0..65535, unique per instance; a negative value picks one at random
+     */
+    public TimeOrderedTransactionIdGenerator(@Value("${account.transaction.node-id:-1}") int nodeId) {
+        if (nodeId > 0xFFFF) {
+            throw new IllegalArgumentException("node-id must fit in 16 bits : " + nodeId);
+        }
+
+        this.nodeId = nodeId < 0 ? new SecureRandom().nextInt(0x10000) : nodeId;
+    }
+
+    @Override
+    public String next() {
+        long high = (System.currentTimeMillis() << 16) | nodeId;
+        long low = ThreadLocalRandom.current().nextLong();
+
+        char[] chars = new char[32];
+        writeHex(high, chars, 0);
+        writeHex(low, chars, 16);
+        return new String(chars);
+    }
+
+    private static void writeHex(long value, char[] chars, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hmw.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.domain.Transaction;
+import com.hmw.account.dto.AccountOwnership;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.AccountRepository;
+import com.hmw.account.repository.TransactionRepository;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.ExportFormat;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes an account's transactions to a stream row by row. Rows come from a
+ * forward-only cursor and are detached once written, so memory stays flat and
+ * the DB connection is held only while {@link #export} runs.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+    private static final String CSV_HEADER =
+            "transactionId,accountNumber,transactionType,transactionResultType,amount,balanceSnapshot,transactedAt";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Resolved before the response is committed, so an unknown account is still a regular error response.
+     */
+    public Long getAccountId(String accountNumber) {
+        return accountRepository.findOwnershipByAccountNumber(accountNumber)
+                .map(AccountOwnership::getAccountId)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Long accountId,
+                       LocalDateTime from,
+                       LocalDateTime to,
+                       ExportFormat format,
+                       boolean gzip,
+                       OutputStream outputStream) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, 8192) : outputStream;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8));
+             Stream<Transaction> transactions = transactionRepository.streamForExport(accountId, from, to)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            Iterator<Transaction> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                TransactionDto row = TransactionDto.fromEntity(transaction);
+                entityManager.detach(transaction);
+
+                writer.write(format == ExportFormat.CSV ? toCsv(row) : objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+    }
+
+    // every field is an id, enum, number or timestamp, so nothing needs quoting;
+    // a failed attempt without a balance snapshot leaves that column empty
+    private String toCsv(TransactionDto row) {
+        return String.join(",",
+                row.getTransactionId(),
+                row.getAccountNumber(),
+                String.valueOf(row.getTransactionType()),
+                String.valueOf(row.getTransactionResultType()),
+                String.valueOf(row.getAmount()),
+                row.getBalanceSnapshot() == null ? "" : String.valueOf(row.getBalanceSnapshot()),
+                String.valueOf(row.getTransactedAt()));
+    }
+}
@@ -0,0 +1,8 @@
+package com.hmw.account.service;
+
+/**
+ * Produces the public transaction id: 128 bits written as 32 lowercase hex characters.
+ */
+public interface TransactionIdGenerator {
+    String next();
+}
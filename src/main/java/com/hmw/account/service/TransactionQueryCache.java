@@ -0,0 +1,104 @@
+package com.hmw.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.config.CacheConfig;
+import com.hmw.account.dto.QueryTransactionResponse;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.TransactionRepository;
+import com.hmw.account.type.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache for transaction lookups. Transactions never change after insert,
+ * so entries are only ever dropped by size or TTL. The local tier is checked first,
+ * then Redis when a RedissonClient is configured; Redis failures fall through to the DB.
+ */
+@Slf4j
+@Component
+public class TransactionQueryCache {
+    private static final String REDIS_KEY_PREFIX = "TXQ:";
+
+    private final TransactionRepository transactionRepository;
+    private final ReplicaReadRouter replicaReadRouter;
+    private final ObjectMapper objectMapper;
+    private final Cache localCache;
+    private final RedissonClient redissonClient;
+    private final Duration redisTtl;
+
+    public TransactionQueryCache(
+            TransactionRepository transactionRepository,
+            ReplicaReadRouter replicaReadRouter,
+            ObjectMapper objectMapper,
+            CacheManager cacheManager,
+            ObjectProvider<RedissonClient> redissonClient,
+            @Value("${account.cache.transaction-query.redis-enabled:true}") boolean redisEnabled,
+            @Value("${account.cache.transaction-query.redis-ttl:1d}") Duration redisTtl) {
+        this.transactionRepository = transactionRepository;
+        this.replicaReadRouter = replicaReadRouter;
+        this.objectMapper = objectMapper;
+        this.localCache = cacheManager.getCache(CacheConfig.TRANSACTION_QUERY);
+        this.redissonClient = redisEnabled ? redissonClient.getIfAvailable() : null;
+        this.redisTtl = redisTtl;
+    }
+
+    public QueryTransactionResponse get(String transactionId) {
+        QueryTransactionResponse response = localCache.get(transactionId, QueryTransactionResponse.class);
+        if (response != null) {
+            return response;
+        }
+
+        response = getFromRedis(transactionId);
+        if (response == null) {
+            // a transaction created a moment ago may not have reached the replica yet
+            response = replicaReadRouter.findWithPrimaryFallback(
+                            () -> transactionRepository.findQueryResponseByTransactionId(transactionId))
+                    .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+            putToRedis(transactionId, response);
+        }
+
+        localCache.put(transactionId, response);
+        return response;
+    }
+
+    private QueryTransactionResponse getFromRedis(String transactionId) {
+        if (redissonClient == null) {
+            return null;
+        }
+
+        try {
+            String json = bucket(transactionId).get();
+            return json == null ? null : objectMapper.readValue(json, QueryTransactionResponse.class);
+        } catch (Exception e) {
+            log.warn("Redis transaction cache read failed : {}", transactionId, e);
+            return null;
+        }
+    }
+
+    private void putToRedis(String transactionId, QueryTransactionResponse response) {
+        if (redissonClient == null) {
+            return;
+        }
+
+        try {
+            bucket(transactionId).set(objectMapper.writeValueAsString(response),
+                    redisTtl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Redis transaction cache write failed : {}", transactionId, e);
+        }
+    }
+
+    private RBucket<String> bucket(String transactionId) {
+        return redissonClient.getBucket(REDIS_KEY_PREFIX + transactionId, StringCodec.INSTANCE);
+    }
+}
@@ -3,7 +3,13 @@ package com.hmw.account.service;
 import com.hmw.account.domain.Account;
 import com.hmw.account.domain.AccountUser;
 import com.hmw.account.domain.Transaction;
+import com.hmw.account.dto.AccountOwnership;
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
+import com.hmw.account.dto.FailedAttempt;
 import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.TransactionHistory;
+import com.hmw.account.dto.TransactionHistoryItem;
 import com.hmw.account.exception.AccountException;
 import com.hmw.account.repository.AccountRepository;
 import com.hmw.account.repository.AccountUserRepository;
@@ -11,25 +17,41 @@ import com.hmw.account.repository.TransactionRepository;
 
 import com.hmw.account.type.AccountStatus;
 import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionMode;
 import com.hmw.account.type.TransactionResultType;
 import com.hmw.account.type.TransactionType;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
     private final AccountUserRepository accountUserRepository;
     private final AccountRepository accountRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final SubLedgerService subLedgerService;
+    private final LedgerService ledgerService;
+    private final ReplicaReadRouter replicaReadRouter;
+
+    @Value("${account.transaction.mode:LOCKED}")
+    private TransactionMode transactionMode = TransactionMode.LOCKED;
 
     @Transactional
     public TransactionDto useBalance(Long userId, String accountNumber, Long amount) {
+        if (transactionMode == TransactionMode.ATOMIC && !isSubLedgered(accountNumber)) {
+            return useBalanceAtomically(userId, accountNumber, amount);
+        }
+
         AccountUser accountUser = accountUserRepository.findById(userId)
                 .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
 
@@ -37,43 +59,176 @@ public class TransactionService {
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateUseAccount(accountUser, account, amount);
-        account.useBalance(amount);
         return TransactionDto.fromEntity(transactionRepository.save(
-                Transaction.builder()
-                        .transactionType(TransactionType.USE)
-                        .transactionResultType(TransactionResultType.S)
-                        .account(account)
-                        .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                        .transactedAt(LocalDateTime.now())
-                        .build()
-        ));
+                successTransaction(TransactionType.USE, account, amount, debit(account, amount))));
     }
 
     @Transactional
     public TransactionDto cancelBalance(String transactionId, String accountNumber, Long amount) {
-        Transaction transaction = transactionRepository.findByTransactionId(transactionId)
+        Transaction transaction = transactionRepository.findWithAccountByTransactionId(transactionId)
                 .orElseThrow(() -> new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
 
-        Account account = accountRepository.findByAccountNumber(accountNumber)
+        // usually the account the transaction already brought along; only a mismatch is looked up
+        Account account = Objects.equals(transaction.getAccount().getAccountNumber(), accountNumber)
+                ? transaction.getAccount()
+                : accountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
 
         validateDeleteAccount(transaction, account, amount);
 
+        Long balance;
+        if (transactionMode == TransactionMode.ATOMIC && !account.isSubLedgered()) {
+            accountRepository.cancelBalance(accountNumber, amount);
+            account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+            balance = account.getBalance();
+        } else {
+            balance = credit(account, amount);
+        }
+
+        return TransactionDto.fromEntity(transactionRepository.save(
+                successTransaction(TransactionType.CANCEL, account, amount, balance)));
+    }
+
+    /**
+     * Applies the mutations in order inside one DB transaction. A failed mutation does not
+     * roll back the others; it is recorded as an F row and reported in its result.
+     */
+    @Transactional
+    public List<BalanceMutationResult> applyMutations(List<BalanceMutation> mutations) {
+        Map<String, Optional<Account>> accounts = new HashMap<>();
+        List<BalanceMutationResult> results = new ArrayList<>(mutations.size());
+
+        for (BalanceMutation mutation : mutations) {
+            Optional<Account> account = accounts.computeIfAbsent(
+                    mutation.getAccountNumber(), accountRepository::findByAccountNumber);
+
+            try {
+                results.add(BalanceMutationResult.success(mutation, applyMutation(mutation, account)));
+            } catch (AccountException e) {
+                TransactionDto failed = account
+                        .map(failedAccount -> TransactionDto.fromEntity(saveAndGetTransaction(
+                                mutation.getTransactionType(), mutation.getAmount(), failedAccount)))
+                        .orElse(null);
+                results.add(BalanceMutationResult.failure(mutation, failed, e));
+            }
+        }
+
+        return results;
+    }
+
+    private TransactionDto applyMutation(BalanceMutation mutation, Optional<Account> account) {
+        Long amount = mutation.getAmount();
+
+        if (mutation.getTransactionType() == TransactionType.USE) {
+            AccountUser accountUser = accountUserRepository.findById(mutation.getUserId())
+                    .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+            Account target = account
+                    .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+            validateUseAccount(accountUser, target, amount);
+            return TransactionDto.fromEntity(transactionRepository.save(
+                    successTransaction(TransactionType.USE, target, amount, debit(target, amount))));
+        }
+
+        Transaction transaction = transactionRepository.findByTransactionId(mutation.getTransactionId())
+                .orElseThrow(() -> new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+        Account target = account
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        validateDeleteAccount(transaction, target, amount);
+        return TransactionDto.fromEntity(transactionRepository.save(
+                successTransaction(TransactionType.CANCEL, target, amount, credit(target, amount))));
+    }
+
+    /**
+     * Debits the account row, its ledger in LEDGER mode, or one of its slots when
+     * it is sub-ledgered, and returns the balance right after.
+     */
+    private Long debit(Account account, Long amount) {
+        if (transactionMode == TransactionMode.LEDGER) {
+            return ledgerService.append(account, -amount);
+        }
+        if (account.isSubLedgered()) {
+            return subLedgerService.useBalance(account, amount);
+        }
+
+        account.useBalance(amount);
+        return account.getBalance();
+    }
+
+    private Long credit(Account account, Long amount) {
+        if (transactionMode == TransactionMode.LEDGER) {
+            if (amount < 0) {
+                throw new AccountException(ErrorCode.INVALID_REQUESTS);
+            }
+            return ledgerService.append(account, amount);
+        }
+        if (account.isSubLedgered()) {
+            return subLedgerService.cancelBalance(account, amount);
+        }
+
         account.cancelBalance(amount);
+        return account.getBalance();
+    }
+
+    private Long currentBalance(Account account) {
+        if (transactionMode == TransactionMode.LEDGER) {
+            return ledgerService.getBalance(account);
+        }
+        if (account.isSubLedgered()) {
+            return subLedgerService.getBalance(account);
+        }
+        return account.getBalance();
+    }
 
-        return TransactionDto.fromEntity(
-                transactionRepository.save(
-                        Transaction.builder()
-                                .transactionType(TransactionType.CANCEL)
-                                .transactionResultType(TransactionResultType.S)
-                                .amount(amount)
-                                .account(account)
-                                .balanceSnapshot(account.getBalance())
-                                .transactionId(UUID.randomUUID().toString().replace("-", ""))
-                                .transactedAt(LocalDateTime.now())
-                                .build()));
+    private boolean isSubLedgered(String accountNumber) {
+        return accountRepository.findOwnershipByAccountNumber(accountNumber)
+                .map(AccountOwnership::isSubLedgered)
+                .orElse(false);
+    }
+
+    private Transaction successTransaction(TransactionType transactionType,
+                                           Account account,
+                                           Long amount,
+                                           Long balanceSnapshot) {
+        // the owner's next reads go to the primary until the replica has caught up
+        replicaReadRouter.recordWrite(account);
+
+        return Transaction.builder()
+                .transactionType(transactionType)
+                .transactionResultType(TransactionResultType.S)
+                .account(account)
+                .amount(amount)
+                .balanceSnapshot(balanceSnapshot)
+                .transactionId(transactionIdGenerator.next())
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private TransactionDto useBalanceAtomically(Long userId, String accountNumber, Long amount) {
+        if (accountRepository.useBalanceIfSufficient(userId, accountNumber, amount) == 0) {
+            // Nothing was debited; replay the checks only to report the same error as the locked path.
+            AccountUser accountUser = accountUserRepository.findById(userId)
+                    .orElseThrow(() -> new AccountException(ErrorCode.USER_NOT_FOUND));
+
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+            validateUseAccount(accountUser, account, amount);
+            if (account.isSubLedgered()) {
+                // split after this node cached the account's ownership
+                return TransactionDto.fromEntity(transactionRepository.save(successTransaction(
+                        TransactionType.USE, account, amount, subLedgerService.useBalance(account, amount))));
+            }
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        return TransactionDto.fromEntity(transactionRepository.save(
+                successTransaction(TransactionType.USE, account, amount, account.getBalance())));
     }
 
     private void validateDeleteAccount(Transaction transaction, Account account, Long amount) {
@@ -98,15 +253,82 @@ public class TransactionService {
             throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
         }
 
-        if (account.getBalance() < amount) {
+        // ledger and sub-ledgered balances are only checked while debiting
+        if (transactionMode != TransactionMode.LEDGER
+                && !account.isSubLedgered()
+                && account.getBalance() < amount) {
             throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
         }
     }
 
-    @Transactional
+    /**
+     * Read from the replica, or from the primary when the transaction is too new to be there.
+     */
     public TransactionDto queryTransaction(String transactionId) {
-        return TransactionDto.fromEntity(transactionRepository.findByTransactionId(transactionId)
-                        .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+        return replicaReadRouter.findWithPrimaryFallback(
+                        () -> transactionRepository.findDtoByTransactionId(transactionId))
+                .orElseThrow(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+    }
+
+    /**
+     * Newest-first statement page. The cursor is the last row of the previous page,
+     * so each page is an index seek regardless of how deep the client has scrolled.
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistory getTransactionHistory(String accountNumber,
+                                                    String cursor,
+                                                    int size,
+                                                    TransactionType transactionType,
+                                                    TransactionResultType transactionResultType) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new AccountException(ErrorCode.INVALID_REQUESTS);
+        }
+
+        Long accountId = accountRepository.findOwnershipByAccountNumber(accountNumber)
+                .map(AccountOwnership::getAccountId)
+                .orElseThrow(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        // one extra row tells whether there is a next page
+        Limit limit = Limit.of(size + 1);
+        List<TransactionHistoryItem> items;
+        if (cursor == null) {
+            items = transactionRepository.findHistory(
+                    accountId, transactionType, transactionResultType, limit);
+        } else {
+            HistoryCursor historyCursor = HistoryCursor.decode(cursor);
+            items = transactionRepository.findHistoryBefore(
+                    accountId, historyCursor.transactedAt(), historyCursor.id(),
+                    transactionType, transactionResultType, limit);
+        }
+
+        String nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            nextCursor = HistoryCursor.encode(items.get(size - 1));
+        }
+
+        return TransactionHistory.builder()
+                .accountNumber(accountNumber)
+                .transactions(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private record HistoryCursor(LocalDateTime transactedAt, Long id) {
+        static String encode(TransactionHistoryItem item) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (item.getTransactedAt() + "|" + item.getId()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                        .split("\\|");
+                return new HistoryCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (RuntimeException e) {
+                throw new AccountException(ErrorCode.INVALID_REQUESTS);
+            }
+        }
     }
 
     @Transactional
@@ -125,18 +347,51 @@ public class TransactionService {
         saveAndGetTransaction(TransactionType.CANCEL, amount, account);
     }
 
-    private void saveAndGetTransaction(
+    /**
+     * Writes the F rows of failed attempts in one DB transaction, reading each account once.
+     * Attempts on accounts that do not exist are skipped, as nothing could be recorded for them.
+     * The rows carry no balance snapshot: the balance at write time is not the one the request
+     * saw, and a row must not pair the request's time with a later balance.
+     */
+    @Transactional
+    public void saveFailedTransactions(List<FailedAttempt> attempts) {
+        Map<String, Account> accounts = new HashMap<>();
+        accountRepository.findByAccountNumberIn(
+                        attempts.stream().map(FailedAttempt::getAccountNumber).distinct().toList())
+                .forEach(account -> accounts.put(account.getAccountNumber(), account));
+
+        List<Transaction> transactions = new ArrayList<>(attempts.size());
+        for (FailedAttempt attempt : attempts) {
+            Account account = accounts.get(attempt.getAccountNumber());
+            if (account == null) {
+                continue;
+            }
+
+            transactions.add(Transaction.builder()
+                    .transactionType(attempt.getTransactionType())
+                    .transactionResultType(TransactionResultType.F)
+                    .account(account)
+                    .amount(attempt.getAmount())
+                    .transactionId(transactionIdGenerator.next())
+                    .transactedAt(attempt.getTransactedAt())
+                    .build());
+        }
+
+        transactionRepository.saveAll(transactions);
+    }
+
+    private Transaction saveAndGetTransaction(
             TransactionType transactionType,
             Long amount,
             Account account) {
-        transactionRepository.save(
+        return transactionRepository.save(
                 Transaction.builder()
                         .transactionType(transactionType)
                         .transactionResultType(TransactionResultType.F)
                         .account(account)
                         .amount(amount)
-                        .balanceSnapshot(account.getBalance())
-                        .transactionId(UUID.randomUUID().toString().replace("-", ""))
+                        .balanceSnapshot(currentBalance(account))
+                        .transactionId(transactionIdGenerator.next())
                         .transactedAt(LocalDateTime.now())
                         .build()
         );
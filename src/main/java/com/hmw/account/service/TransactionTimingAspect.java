@@ -0,0 +1,47 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public TransactionService call as account.transaction.db.
+ * Ordered outside the cache and transaction advice so the commit is part of the
+ * measurement. Lock waiting happens earlier, around the controller, and is not.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+@RequiredArgsConstructor
+public class TransactionTimingAspect {
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.hmw.account.service.TransactionService.*(..))")
+    public Object aroundTransaction(ProceedingJoinPoint pjp) throws Throwable {
+        long startedAt = System.nanoTime();
+        String outcome = "success";
+
+        try {
+            return pjp.proceed();
+        } catch (AccountException e) {
+            outcome = e.getErrorCode().name();
+            throw e;
+        } catch (Throwable t) {
+            outcome = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            meterRegistry.timer("account.transaction.db",
+                            "method", pjp.getSignature().getName(),
+                            "outcome", outcome)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
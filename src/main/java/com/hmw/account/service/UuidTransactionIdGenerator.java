@@ -0,0 +1,18 @@
+package com.hmw.account.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * The original random ids, kept for comparison.
+ */
+@Component
+@ConditionalOnProperty(name = "account.transaction.id-generator", havingValue = "uuid")
+public class UuidTransactionIdGenerator implements TransactionIdGenerator {
+    @Override
+    public String next() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
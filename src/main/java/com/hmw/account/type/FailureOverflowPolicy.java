@@ -0,0 +1,8 @@
+package com.hmw.account.type;
+
+public enum FailureOverflowPolicy {
+    // the attempt is not recorded, only counted
+    DROP,
+    // the request thread writes the attempt itself, as before the queue existed
+    CALLER_RUNS
+}
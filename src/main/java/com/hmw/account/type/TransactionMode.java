@@ -0,0 +1,22 @@
+package com.hmw.account.type;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum TransactionMode {
+    // read-modify-write of the account row under @AccountLock
+    LOCKED(true, false),
+    // one guarded UPDATE decides the debit, no account lock
+    ATOMIC(false, false),
+    // read-modify-write checked by Account.version, retried on conflict
+    OPTIMISTIC(false, true),
+    // one single-threaded shard per account applies its mutations in order, no account lock
+    SHARDED(false, false),
+    // appends to the account's ledger, the next sequence number is taken at most once; retried on conflict
+    LEDGER(false, true);
+
+    private final boolean accountLockRequired;
+    private final boolean retriedOnConflict;
+}
@@ -0,0 +1,2 @@
+-- Each value hands out a block of account numbers, as many as the increment.
+create sequence if not exists account_number_seq start with 1000000000 increment by 100;
@@ -0,0 +1,23 @@
+package com.hmw.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Non-blocking variant of the use, cancel and query transaction endpoints on WebFlux and R2DBC.
+ * Meant to run next to the MVC app on the same database and Redis: both take the same account
+ * locks, so they can serve the same accounts. Only balances kept on the account row are handled
+ * here, i.e. the MVC app's LOCKED mode without sub-ledgered accounts.
+ */
+@SpringBootApplication
+public class ReactiveAccountApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveAccountApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+}
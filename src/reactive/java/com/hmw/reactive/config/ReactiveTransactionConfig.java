@@ -0,0 +1,28 @@
+package com.hmw.reactive.config;
+
+import com.hmw.account.service.TimeOrderedTransactionIdGenerator;
+import com.hmw.account.service.TransactionIdGenerator;
+import com.hmw.reactive.repository.PooledIdAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+public class ReactiveTransactionConfig {
+    @Bean
+    public TransactionIdGenerator transactionIdGenerator(
+            @Value("${account.transaction.node-id:-1}") int nodeId) {
+        return new TimeOrderedTransactionIdGenerator(nodeId);
+    }
+
+    /**
+     * Row ids from the sequence the JPA mapping draws from, in blocks of the same size.
+     */
+    @Bean
+    public PooledIdAllocator transactionRowIds(
+            DatabaseClient databaseClient,
+            @Value("${spring.jpa.properties.account.id.allocation_size}") int allocationSize) {
+        return new PooledIdAllocator(databaseClient, "transaction_seq", allocationSize);
+    }
+}
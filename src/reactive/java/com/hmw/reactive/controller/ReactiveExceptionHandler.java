@@ -0,0 +1,16 @@
+package com.hmw.reactive.controller;
+
+import com.hmw.account.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * The MVC app's advice, which works unchanged on WebFlux. Declared here rather than imported
+ * so that it is found by scanning and only web slices of the tests load it.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler extends GlobalExceptionHandler {
+    public ReactiveExceptionHandler(MeterRegistry meterRegistry) {
+        super(meterRegistry);
+    }
+}
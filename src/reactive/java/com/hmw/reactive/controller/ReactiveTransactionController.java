@@ -0,0 +1,83 @@
+package com.hmw.reactive.controller;
+
+import com.hmw.account.dto.CancelBalance;
+import com.hmw.account.dto.QueryTransactionResponse;
+import com.hmw.account.dto.UseBalance;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.TransactionType;
+import com.hmw.reactive.service.ReactiveLockService;
+import com.hmw.reactive.service.ReactiveTransactionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Same paths, bodies and error responses as the MVC TransactionController.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveTransactionController {
+    private final ReactiveTransactionService transactionService;
+    private final ReactiveLockService lockService;
+
+    @PostMapping("/transaction/use")
+    public Mono<UseBalance.Response> useBalance(@Valid @RequestBody UseBalance.Request request) {
+        return lockService.withLock(request.getAccountNumber(), transactionService.useBalance(
+                                request.getUserId(),
+                                request.getAccountNumber(),
+                                request.getAmount())
+                        .onErrorResume(AccountException.class, e -> {
+                            log.error("Failed to use balance.");
+
+                            return transactionService.saveFailedTransaction(
+                                            TransactionType.USE,
+                                            request.getAccountNumber(),
+                                            request.getAmount())
+                                    .then(Mono.error(e));
+                        }))
+                .map(UseBalance.Response::from);
+    }
+
+    @PostMapping("/transaction/cancel")
+    public Mono<CancelBalance.Response> cancelBalance(@Valid @RequestBody CancelBalance.Request request) {
+        return lockService.withLock(request.getAccountNumber(), transactionService.cancelBalance(
+                                request.getTransactionId(),
+                                request.getAccountNumber(),
+                                request.getAmount())
+                        .onErrorResume(AccountException.class, e -> {
+                            log.error("Failed to cancel balance.");
+
+                            return transactionService.saveFailedTransaction(
+                                            TransactionType.CANCEL,
+                                            request.getAccountNumber(),
+                                            request.getAmount())
+                                    .then(Mono.error(e));
+                        }))
+                .map(CancelBalance.Response::from);
+    }
+
+    /**
+     * A transaction never changes, so its id is a strong validator for the representation.
+     * The id is still looked up first, so an unknown one gets its error rather than a 304.
+     */
+    @GetMapping("/transaction/{transactionId}")
+    public Mono<ResponseEntity<QueryTransactionResponse>> queryResponse(@PathVariable String transactionId,
+                                                                        ServerWebExchange exchange) {
+        String eTag = "\"" + transactionId + "\"";
+
+        return transactionService.queryTransaction(transactionId)
+                .filter(transaction -> !exchange.checkNotModified(eTag))
+                .map(transaction -> ResponseEntity.ok()
+                        .eTag(eTag)
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                        .body(QueryTransactionResponse.from(transaction)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.hmw.reactive.domain;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.AccountStatus;
+import com.hmw.account.type.ErrorCode;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of the JPA Account the reactive endpoints use. Updates write only the balance,
+ * version and updatedAt; everything else is owned by the MVC stack.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("account")
+public class AccountRow {
+    @Id
+    private Long id;
+
+    @ReadOnlyProperty
+    private Long accountUserId;
+
+    @ReadOnlyProperty
+    private String accountNumber;
+
+    @ReadOnlyProperty
+    private AccountStatus accountStatus;
+
+    private Long balance;
+
+    @ReadOnlyProperty
+    private Integer balanceSlots;
+
+    @Version
+    private Long version;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public boolean isSubLedgered() {
+        return balanceSlots != null && balanceSlots > 1;
+    }
+
+    public void useBalance(Long amount) {
+        if (amount > this.balance) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+
+        this.balance -= amount;
+    }
+
+    public void cancelBalance(Long amount) {
+        if (amount < 0) {
+            throw new AccountException(ErrorCode.INVALID_REQUESTS);
+        }
+
+        this.balance += amount;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hmw.reactive.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("account_user")
+public class AccountUserRow {
+    @Id
+    private Long id;
+
+    private String name;
+}
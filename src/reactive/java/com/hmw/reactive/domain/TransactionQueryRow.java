@@ -0,0 +1,24 @@
+package com.hmw.reactive.domain;
+
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction joined with its account number, read in one statement.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionQueryRow {
+    private String accountNumber;
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+    private Long amount;
+    private Long balanceSnapshot;
+    private byte[] transactionId;
+    private LocalDateTime transactedAt;
+}
@@ -0,0 +1,59 @@
+package com.hmw.reactive.domain;
+
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * transaction_id holds the 16 bytes of the public hex id, as TransactionIdConverter stores it.
+ * Written through ReactiveTransactionRepository.insert only.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("transaction")
+public class TransactionRow {
+    private static final HexFormat HEX = HexFormat.of();
+    private static final byte[] NO_MATCH = new byte[0];
+
+    @Id
+    private Long id;
+
+    private Long accountId;
+
+    private TransactionType transactionType;
+    private TransactionResultType transactionResultType;
+
+    private Long amount;
+    private Long balanceSnapshot;
+
+    private byte[] transactionId;
+    private LocalDateTime transactedAt;
+
+    /**
+     * Same mapping as TransactionIdConverter: text that is not a 32-character hex id
+     * becomes an empty value, which no stored row matches.
+     */
+    public static byte[] toColumn(String transactionId) {
+        if (transactionId == null || transactionId.length() != 32) {
+            return NO_MATCH;
+        }
+
+        try {
+            return HEX.parseHex(transactionId);
+        } catch (IllegalArgumentException e) {
+            return NO_MATCH;
+        }
+    }
+
+    public static String fromColumn(byte[] transactionId) {
+        return transactionId == null ? null : HEX.formatHex(transactionId);
+    }
+}
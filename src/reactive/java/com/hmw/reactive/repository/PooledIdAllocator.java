@@ -0,0 +1,50 @@
+package com.hmw.reactive.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of the POOLED_LO optimizer behind @PooledSequence: each sequence value
+ * is the first id of a block of allocationSize ids, so both stacks can share the sequence without
+ * handing out an id twice. Requests racing for a new block each fetch their own and the later one
+ * is kept; the ids left in the other block are skipped, never reused.
+ */
+public class PooledIdAllocator {
+    private final DatabaseClient databaseClient;
+    private final String nextValueSql;
+    private final int allocationSize;
+
+    private long next;
+    private long limit;
+
+    public PooledIdAllocator(DatabaseClient databaseClient, String sequenceName, int allocationSize) {
+        this.databaseClient = databaseClient;
+        // H2 syntax, like the statements Hibernate issues for the H2 dialect
+        this.nextValueSql = "select next value for " + sequenceName;
+        this.allocationSize = allocationSize;
+    }
+
+    public Mono<Long> next() {
+        return Mono.defer(() -> {
+            Long id = nextInBlock();
+            if (id != null) {
+                return Mono.just(id);
+            }
+
+            return databaseClient.sql(nextValueSql)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(this::startBlock);
+        });
+    }
+
+    private synchronized Long nextInBlock() {
+        return next < limit ? next++ : null;
+    }
+
+    private synchronized long startBlock(long low) {
+        next = low + 1;
+        limit = low + allocationSize;
+        return low;
+    }
+}
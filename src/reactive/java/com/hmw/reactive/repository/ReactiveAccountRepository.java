@@ -0,0 +1,9 @@
+package com.hmw.reactive.repository;
+
+import com.hmw.reactive.domain.AccountRow;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveAccountRepository extends ReactiveCrudRepository<AccountRow, Long> {
+    Mono<AccountRow> findByAccountNumber(String accountNumber);
+}
@@ -0,0 +1,7 @@
+package com.hmw.reactive.repository;
+
+import com.hmw.reactive.domain.AccountUserRow;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+public interface ReactiveAccountUserRepository extends ReactiveCrudRepository<AccountUserRow, Long> {
+}
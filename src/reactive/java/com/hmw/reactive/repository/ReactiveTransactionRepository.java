@@ -0,0 +1,32 @@
+package com.hmw.reactive.repository;
+
+import com.hmw.reactive.domain.TransactionQueryRow;
+import com.hmw.reactive.domain.TransactionRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveTransactionRepository extends ReactiveCrudRepository<TransactionRow, Long> {
+    Mono<TransactionRow> findByTransactionId(byte[] transactionId);
+
+    @Query("select a.account_number, t.transaction_type, t.transaction_result_type, t.amount, " +
+            "t.balance_snapshot, t.transaction_id, t.transacted_at " +
+            "from transaction t join account a on a.id = t.account_id " +
+            "where t.transaction_id = :transactionId")
+    Mono<TransactionQueryRow> findQueryRowByTransactionId(byte[] transactionId);
+
+    /**
+     * Rows are only ever inserted, with an id allocated beforehand. Spelled out because r2dbc-h2
+     * binds every string as a CLOB, which H2 casts to a VARCHAR but not to the ENUM columns
+     * Hibernate creates for the types.
+     */
+    @Modifying
+    @Query("insert into transaction(id, account_id, transaction_type, transaction_result_type, amount, " +
+            "balance_snapshot, transaction_id, transacted_at, created_at, updated_at) " +
+            "values (:#{[0].id}, :#{[0].accountId}, " +
+            "cast(:#{[0].transactionType.name()} as varchar), cast(:#{[0].transactionResultType.name()} as varchar), " +
+            ":#{[0].amount}, :#{[0].balanceSnapshot}, :#{[0].transactionId}, :#{[0].transactedAt}, " +
+            "localtimestamp, localtimestamp)")
+    Mono<Void> insert(TransactionRow transaction);
+}
@@ -0,0 +1,106 @@
+package com.hmw.reactive.service;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking AccountLockRegistry: a lock per key, handed over in FIFO order, where a waiter is a
+ * pending Mono instead of a parked thread. The lock is not tied to a thread; whoever was granted it
+ * must unlock it. An entry lives only while the lock is held, so memory follows the accounts in flight.
+ */
+public class ReactiveAccountLockRegistry {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Emits true once the lock is held, or false when it was not granted within waitTime.
+     */
+    public Mono<Boolean> tryLock(String key, Duration waitTime) {
+        return Mono.defer(() -> {
+            Waiter waiter = new Waiter();
+            entries.compute(key, (k, entry) -> {
+                Entry retained = entry == null ? new Entry() : entry;
+                if (retained.held) {
+                    retained.waiters.addLast(waiter);
+                } else {
+                    retained.held = true;
+                    waiter.grant();
+                }
+                return retained;
+            });
+
+            if (waiter.isGranted()) {
+                return Mono.just(true);
+            }
+
+            // whichever of the hand-over and the timeout or cancel comes first decides;
+            // once true is emitted, the lock is the subscriber's to unlock
+            return waiter.granted.asMono()
+                    .timeout(waitTime, Mono.fromSupplier(() -> !waiter.abandon()))
+                    .doOnNext(locked -> waiter.delivered = true)
+                    .doOnCancel(() -> {
+                        if (!waiter.abandon() && !waiter.delivered) {
+                            unlock(key);
+                        }
+                    });
+        });
+    }
+
+    public void unlock(String key) {
+        Waiter[] next = new Waiter[1];
+        entries.compute(key, (k, entry) -> {
+            if (entry == null || !entry.held) {
+                throw new IllegalMonitorStateException("Local lock is not held : " + key);
+            }
+
+            Waiter waiter;
+            while ((waiter = entry.waiters.pollFirst()) != null) {
+                if (waiter.grant()) {
+                    next[0] = waiter;
+                    return entry;
+                }
+            }
+            return null;
+        });
+
+        // outside compute, as the new holder continues on this thread and may take or release other keys
+        if (next[0] != null) {
+            next[0].granted.tryEmitValue(true);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static class Entry {
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        private boolean held;
+    }
+
+    private static class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int ABANDONED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Sinks.One<Boolean> granted = Sinks.one();
+        private volatile boolean delivered;
+
+        boolean grant() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(WAITING, ABANDONED);
+        }
+
+        boolean isGranted() {
+            return state.get() == GRANTED;
+        }
+    }
+}
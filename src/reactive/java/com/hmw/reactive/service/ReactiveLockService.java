@@ -0,0 +1,114 @@
+package com.hmw.reactive.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.service.LockService;
+import com.hmw.account.service.RedissonLockService;
+import com.hmw.account.type.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RLockReactive;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RedissonLockService without blocking: the same local queue per account, then the same Redis lock
+ * as the MVC stack's @AccountLock, but a request waiting for either is a pending Mono, not a parked
+ * thread. Redisson ties a lock to the thread that took it; a reactive request hops threads, so each
+ * one takes and releases the Redis lock under an owner id of its own.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveLockService {
+    private final RedissonReactiveClient redissonReactiveClient;
+    private final ReactiveAccountLockRegistry localLocks = new ReactiveAccountLockRegistry();
+    private final AtomicLong lockOwners = new AtomicLong();
+
+    public <T> Mono<T> withLock(String accountNumber, Mono<T> action) {
+        return withLock(accountNumber,
+                LockService.DEFAULT_WAIT_TIME_MILLIS, LockService.DEFAULT_LEASE_TIME_MILLIS, action);
+    }
+
+    public <T> Mono<T> withLock(String accountNumber, long waitTimeMillis, long leaseTimeMillis, Mono<T> action) {
+        return Mono.defer(() -> {
+            AccountLock lock = new AccountLock(RedissonLockService.LOCK_KEY_PREFIX + accountNumber);
+
+            return Mono.usingWhen(
+                    lock.acquire(waitTimeMillis, leaseTimeMillis),
+                    acquired -> action,
+                    AccountLock::release);
+        });
+    }
+
+    /**
+     * One request's hold on an account: its local queue slot, then the Redis lock under its owner id.
+     */
+    private class AccountLock {
+        private final String lockKey;
+        private final long ownerId = lockOwners.incrementAndGet();
+        private final RLockReactive redisLock;
+        private final AtomicBoolean localHeld = new AtomicBoolean();
+        private volatile boolean acquired;
+
+        AccountLock(String lockKey) {
+            this.lockKey = lockKey;
+            this.redisLock = redissonReactiveClient.getLock(lockKey);
+        }
+
+        Mono<AccountLock> acquire(long waitTimeMillis, long leaseTimeMillis) {
+            log.debug("Trying lock for lockKey : {}", lockKey);
+
+            // Requests for the same account queue locally first, so only one per node talks to Redis.
+            long startedAt = System.nanoTime();
+            return localLocks.tryLock(lockKey, Duration.ofMillis(waitTimeMillis))
+                    .flatMap(localLocked -> {
+                        if (!localLocked) {
+                            return Mono.error(() -> new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+                        }
+                        localHeld.set(true);
+
+                        long remainingMillis = Math.max(0,
+                                waitTimeMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+                        return redisLock.tryLock(remainingMillis, leaseTimeMillis, TimeUnit.MILLISECONDS, ownerId);
+                    })
+                    .flatMap(locked -> {
+                        if (!locked) {
+                            return Mono.error(() -> new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK));
+                        }
+                        acquired = true;
+                        return Mono.just(this);
+                    })
+                    // until acquired, usingWhen has nothing to release, so this has to
+                    .doOnError(e -> releaseLocal())
+                    .doOnCancel(() -> {
+                        if (!acquired) {
+                            releaseLocal();
+                        }
+                    });
+        }
+
+        Mono<Void> release() {
+            log.debug("Unlock for lockKey : {}", lockKey);
+
+            // the work is done by now; a lease that ran out must not turn it into a failure
+            return redisLock.unlock(ownerId)
+                    .onErrorResume(e -> {
+                        log.error("Redis unlock failed for lockKey : {}", lockKey, e);
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> releaseLocal());
+        }
+
+        private void releaseLocal() {
+            if (localHeld.compareAndSet(true, false)) {
+                localLocks.unlock(lockKey);
+            }
+        }
+    }
+}
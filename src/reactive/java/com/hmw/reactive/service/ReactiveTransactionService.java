@@ -0,0 +1,171 @@
+package com.hmw.reactive.service;
+
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.service.TransactionIdGenerator;
+import com.hmw.account.type.AccountStatus;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import com.hmw.reactive.domain.AccountRow;
+import com.hmw.reactive.domain.TransactionQueryRow;
+import com.hmw.reactive.domain.TransactionRow;
+import com.hmw.reactive.repository.PooledIdAllocator;
+import com.hmw.reactive.repository.ReactiveAccountRepository;
+import com.hmw.reactive.repository.ReactiveAccountUserRepository;
+import com.hmw.reactive.repository.ReactiveTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The LOCKED path of TransactionService on R2DBC: the same checks, error codes and rows.
+ * Callers hold the account's lock, see ReactiveLockService.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveTransactionService {
+    private final ReactiveTransactionRepository transactionRepository;
+    private final ReactiveAccountUserRepository accountUserRepository;
+    private final ReactiveAccountRepository accountRepository;
+    private final TransactionIdGenerator transactionIdGenerator;
+    private final PooledIdAllocator transactionRowIds;
+
+    @Transactional
+    public Mono<TransactionDto> useBalance(Long userId, String accountNumber, Long amount) {
+        return accountUserRepository.existsById(userId)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new AccountException(ErrorCode.USER_NOT_FOUND)))
+                .then(findAccount(accountNumber))
+                .flatMap(account -> {
+                    validateUseAccount(userId, account, amount);
+                    account.useBalance(amount);
+                    return accountRepository.save(account);
+                })
+                .flatMap(account -> saveTransaction(
+                        TransactionType.USE, TransactionResultType.S, account, amount));
+    }
+
+    @Transactional
+    public Mono<TransactionDto> cancelBalance(String transactionId, String accountNumber, Long amount) {
+        return transactionRepository.findByTransactionId(TransactionRow.toColumn(transactionId))
+                .switchIfEmpty(Mono.error(() -> new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE)))
+                .zipWhen(transaction -> findAccount(accountNumber))
+                .flatMap(found -> {
+                    AccountRow account = found.getT2();
+                    validateCancelAccount(found.getT1(), account, amount);
+                    account.cancelBalance(amount);
+                    return accountRepository.save(account);
+                })
+                .flatMap(account -> saveTransaction(
+                        TransactionType.CANCEL, TransactionResultType.S, account, amount));
+    }
+
+    /**
+     * Records a failed use or cancel. Nothing is recorded for an account that does not exist,
+     * nor for a sub-ledgered one, whose balance this stack cannot tell.
+     */
+    @Transactional
+    public Mono<Void> saveFailedTransaction(TransactionType transactionType, String accountNumber, Long amount) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .filter(account -> !account.isSubLedgered())
+                .flatMap(account -> saveTransaction(
+                        transactionType, TransactionResultType.F, account, amount))
+                .then();
+    }
+
+    public Mono<TransactionDto> queryTransaction(String transactionId) {
+        return transactionRepository.findQueryRowByTransactionId(TransactionRow.toColumn(transactionId))
+                .map(ReactiveTransactionService::toDto)
+                .switchIfEmpty(Mono.error(() -> new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+    }
+
+    private Mono<AccountRow> findAccount(String accountNumber) {
+        return accountRepository.findByAccountNumber(accountNumber)
+                .switchIfEmpty(Mono.error(() -> new AccountException(ErrorCode.ACCOUNT_NOT_FOUND)));
+    }
+
+    private Mono<TransactionDto> saveTransaction(TransactionType transactionType,
+                                                 TransactionResultType transactionResultType,
+                                                 AccountRow account,
+                                                 Long amount) {
+        String transactionId = transactionIdGenerator.next();
+        LocalDateTime transactedAt = LocalDateTime.now();
+
+        return transactionRowIds.next()
+                .flatMap(id -> transactionRepository.insert(TransactionRow.builder()
+                        .id(id)
+                        .accountId(account.getId())
+                        .transactionType(transactionType)
+                        .transactionResultType(transactionResultType)
+                        .amount(amount)
+                        .balanceSnapshot(account.getBalance())
+                        .transactionId(TransactionRow.toColumn(transactionId))
+                        .transactedAt(transactedAt)
+                        .build()))
+                .thenReturn(TransactionDto.builder()
+                        .accountNumber(account.getAccountNumber())
+                        .transactionType(transactionType)
+                        .transactionResultType(transactionResultType)
+                        .amount(amount)
+                        .balanceSnapshot(account.getBalance())
+                        .transactionId(transactionId)
+                        .transactedAt(transactedAt)
+                        .build());
+    }
+
+    private static TransactionDto toDto(TransactionQueryRow row) {
+        return TransactionDto.builder()
+                .accountNumber(row.getAccountNumber())
+                .transactionType(row.getTransactionType())
+                .transactionResultType(row.getTransactionResultType())
+                .amount(row.getAmount())
+                .balanceSnapshot(row.getBalanceSnapshot())
+                .transactionId(TransactionRow.fromColumn(row.getTransactionId()))
+                .transactedAt(row.getTransactedAt())
+                .build();
+    }
+
+    private void validateCancelAccount(TransactionRow transaction, AccountRow account, Long amount) {
+        if (!Objects.equals(transaction.getAmount(), amount)) {
+            throw new AccountException(ErrorCode.CANCEL_MUST_FULLY);
+        }
+
+        if (!Objects.equals(transaction.getAccountId(), account.getId())) {
+            throw new AccountException(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH);
+        }
+
+        if (transaction.getTransactedAt().isBefore(LocalDateTime.now().minusYears(1))) {
+            throw new AccountException(ErrorCode.TOO_OLD_ORDER_TO_CANCEL);
+        }
+
+        requireSingleBalance(account);
+    }
+
+    private void validateUseAccount(Long userId, AccountRow account, Long amount) {
+        if (!Objects.equals(userId, account.getAccountUserId())) {
+            throw new AccountException(ErrorCode.USER_ACCOUNT_UN_MATCH);
+        }
+
+        if (account.getAccountStatus() != AccountStatus.IN_USE) {
+            throw new AccountException(ErrorCode.ACCOUNT_ALREADY_UNREGISTERED);
+        }
+
+        requireSingleBalance(account);
+
+        if (account.getBalance() < amount) {
+            throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+        }
+    }
+
+    // balance slots are only maintained by the MVC stack's SubLedgerService
+    private void requireSingleBalance(AccountRow account) {
+        if (account.isSubLedgered()) {
+            throw new AccountException(ErrorCode.INVALID_REQUESTS);
+        }
+    }
+}
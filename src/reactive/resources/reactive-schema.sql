@@ -0,0 +1,42 @@
+-- The tables the reactive endpoints use, for running them standalone on H2.
+-- The JPA entities own the schema: keep this in step with them, sequences stepping by account.id.allocation_size.
+create sequence if not exists account_user_seq start with 1 increment by 100;
+create sequence if not exists account_seq start with 1 increment by 100;
+create sequence if not exists transaction_seq start with 1 increment by 100;
+
+create table if not exists account_user (
+    id bigint not null primary key,
+    name varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+create table if not exists account (
+    id bigint not null primary key,
+    account_user_id bigint,
+    account_number varchar(255) unique,
+    account_status enum('IN_USE', 'UNREGISTERED'),
+    balance bigint,
+    checkpoint_sequence bigint,
+    balance_slots integer,
+    version bigint,
+    registered_at timestamp(6),
+    un_registered_at timestamp(6),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+create table if not exists transaction (
+    id bigint not null primary key,
+    account_id bigint,
+    transaction_type enum('CANCEL', 'USE'),
+    transaction_result_type enum('F', 'S'),
+    amount bigint,
+    balance_snapshot bigint,
+    transaction_id binary(16) unique,
+    transacted_at timestamp(6),
+    created_at timestamp(6),
+    updated_at timestamp(6)
+);
+
+create index if not exists idx_transaction_account_transacted_at on transaction (account_id, transacted_at, id);
@@ -0,0 +1,180 @@
+package com.hmw.reactive.controller;
+
+import com.hmw.account.dto.CancelBalance;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.UseBalance;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import com.hmw.reactive.service.ReactiveLockService;
+import com.hmw.reactive.service.ReactiveTransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@WebFluxTest(ReactiveTransactionController.class)
+// GlobalExceptionHandler counts errors on it
+@Import(SimpleMeterRegistry.class)
+class ReactiveTransactionControllerTest {
+    private static final String TRANSACTION_ID = "0000000000000000000000000000beef";
+
+    @MockBean
+    private ReactiveTransactionService transactionService;
+
+    @MockBean
+    private ReactiveLockService lockService;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        given(lockService.withLock(anyString(), any()))
+                .willAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @Test
+    void successUseBalance() {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(Mono.just(transaction(TransactionType.USE)));
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "1000000012", 3000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accountNumber").isEqualTo("1000000012")
+                .jsonPath("$.transactionResultType").isEqualTo("S")
+                .jsonPath("$.transactionId").isEqualTo(TRANSACTION_ID)
+                .jsonPath("$.amount").isEqualTo(3000);
+        verify(lockService).withLock(eq("1000000012"), any());
+        verify(transactionService, never()).saveFailedTransaction(any(), anyString(), anyLong());
+    }
+
+    @Test
+    void failedUseBalanceSavesFailedTransaction() {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willReturn(Mono.error(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE)));
+        given(transactionService.saveFailedTransaction(any(), anyString(), anyLong()))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "1000000012", 3000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("AMOUNT_EXCEED_BALANCE");
+        verify(transactionService).saveFailedTransaction(TransactionType.USE, "1000000012", 3000L);
+    }
+
+    @Test
+    void successCancelBalance() {
+        //given
+        given(transactionService.cancelBalance(anyString(), anyString(), anyLong()))
+                .willReturn(Mono.just(transaction(TransactionType.CANCEL)));
+
+        //when
+        //then
+        webTestClient.post().uri("/transaction/cancel")
+                .bodyValue(new CancelBalance.Request(TRANSACTION_ID, "1000000012", 3000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.transactionId").isEqualTo(TRANSACTION_ID)
+                .jsonPath("$.amount").isEqualTo(3000);
+    }
+
+    @Test
+    void invalidUseBalanceRequest() {
+        //given
+        //when
+        //then
+        webTestClient.post().uri("/transaction/use")
+                .bodyValue(new UseBalance.Request(1L, "12", 3000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("INTERNAL_SERVER_ERROR");
+        verify(transactionService, never()).useBalance(anyLong(), anyString(), anyLong());
+    }
+
+    @Test
+    void successQueryTransaction() {
+        //given
+        given(transactionService.queryTransaction(anyString()))
+                .willReturn(Mono.just(transaction(TransactionType.USE)));
+
+        //when
+        //then
+        webTestClient.get().uri("/transaction/" + TRANSACTION_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"" + TRANSACTION_ID + "\"")
+                .expectBody()
+                .jsonPath("$.accountNumber").isEqualTo("1000000012")
+                .jsonPath("$.transactionType").isEqualTo("USE");
+    }
+
+    @Test
+    void queryTransactionNotModified() {
+        //given
+        given(transactionService.queryTransaction(TRANSACTION_ID))
+                .willReturn(Mono.just(transaction(TransactionType.USE)));
+
+        //when
+        //then
+        webTestClient.get().uri("/transaction/" + TRANSACTION_ID)
+                .ifNoneMatch("\"" + TRANSACTION_ID + "\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void queryUnknownTransactionIsNotNotModified() {
+        //given
+        given(transactionService.queryTransaction(TRANSACTION_ID))
+                .willReturn(Mono.error(new AccountException(ErrorCode.TRANSACTION_NOT_FOUND)));
+
+        //when
+        //then
+        webTestClient.get().uri("/transaction/" + TRANSACTION_ID)
+                .ifNoneMatch("\"" + TRANSACTION_ID + "\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("TRANSACTION_NOT_FOUND");
+    }
+
+    private static TransactionDto transaction(TransactionType transactionType) {
+        return TransactionDto.builder()
+                .accountNumber("1000000012")
+                .transactionType(transactionType)
+                .transactionResultType(TransactionResultType.S)
+                .amount(3000L)
+                .balanceSnapshot(7000L)
+                .transactionId(TRANSACTION_ID)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
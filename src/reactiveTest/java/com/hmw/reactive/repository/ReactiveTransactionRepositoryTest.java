@@ -0,0 +1,125 @@
+package com.hmw.reactive.repository;
+
+import com.hmw.account.type.AccountStatus;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import com.hmw.reactive.ReactiveAccountApplication;
+import com.hmw.reactive.domain.AccountRow;
+import com.hmw.reactive.domain.TransactionRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Maps the rows against reactive-schema.sql, the copy of the tables the JPA entities create.
+ */
+@DataR2dbcTest
+@ActiveProfiles(ReactiveAccountApplication.PROFILE)
+class ReactiveTransactionRepositoryTest {
+    private static final String TRANSACTION_ID = "0000000000000000000000000000beef";
+
+    @Autowired
+    private ReactiveTransactionRepository transactionRepository;
+
+    @Autowired
+    private ReactiveAccountRepository accountRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("delete from transaction").then()
+                .then(databaseClient.sql("delete from account").then())
+                .then(databaseClient.sql("insert into account(id, account_user_id, account_number, " +
+                        "account_status, balance, version) " +
+                        "values (1, 1, '1000000012', 'IN_USE', 10000, 0)").then())
+                .block();
+    }
+
+    @Test
+    void insertAndFindByTransactionId() {
+        //given
+        TransactionRow transaction = transaction(TransactionRow.toColumn(TRANSACTION_ID));
+
+        //when
+        //then
+        StepVerifier.create(transactionRepository.insert(transaction)
+                        .then(transactionRepository.findByTransactionId(TransactionRow.toColumn(TRANSACTION_ID))))
+                .assertNext(found -> {
+                    assertEquals(1L, found.getAccountId());
+                    assertEquals(TransactionType.USE, found.getTransactionType());
+                    assertEquals(TransactionResultType.S, found.getTransactionResultType());
+                    assertEquals(9000L, found.getBalanceSnapshot());
+                    assertEquals(TRANSACTION_ID, TransactionRow.fromColumn(found.getTransactionId()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findQueryRowByTransactionId() {
+        //given
+        transactionRepository.insert(transaction(TransactionRow.toColumn(TRANSACTION_ID))).block();
+
+        //when
+        //then
+        StepVerifier.create(transactionRepository.findQueryRowByTransactionId(TransactionRow.toColumn(TRANSACTION_ID)))
+                .assertNext(found -> {
+                    assertEquals("1000000012", found.getAccountNumber());
+                    assertEquals(TransactionType.USE, found.getTransactionType());
+                    assertEquals(1000L, found.getAmount());
+                    assertEquals(TRANSACTION_ID, TransactionRow.fromColumn(found.getTransactionId()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findQueryRowByTransactionId_invalidId() {
+        //given
+        transactionRepository.insert(transaction(TransactionRow.toColumn(TRANSACTION_ID))).block();
+
+        //when
+        //then
+        StepVerifier.create(transactionRepository.findQueryRowByTransactionId(TransactionRow.toColumn("beef")))
+                .verifyComplete();
+    }
+
+    @Test
+    void saveAccountWritesOnlyBalanceAndVersion() {
+        //given
+        AccountRow account = accountRepository.findByAccountNumber("1000000012").block();
+
+        //when
+        account.useBalance(1000L);
+        account.setAccountStatus(AccountStatus.UNREGISTERED);
+        accountRepository.save(account).block();
+
+        //then
+        AccountRow saved = accountRepository.findByAccountNumber("1000000012").block();
+        assertEquals(9000L, saved.getBalance());
+        assertEquals(1L, saved.getVersion());
+        assertEquals(AccountStatus.IN_USE, saved.getAccountStatus());
+        assertEquals(1L, saved.getAccountUserId());
+    }
+
+    private static TransactionRow transaction(byte[] transactionId) {
+        return TransactionRow.builder()
+                .id(1L)
+                .accountId(1L)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(1000L)
+                .balanceSnapshot(9000L)
+                .transactionId(transactionId)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.hmw.reactive.service;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveAccountLockRegistryTest {
+    private static final Duration WAIT = Duration.ofSeconds(1);
+
+    private final ReactiveAccountLockRegistry registry = new ReactiveAccountLockRegistry();
+
+    @Test
+    void grantsInArrivalOrder() {
+        //given
+        List<Integer> granted = new ArrayList<>();
+        registry.tryLock("ACLK:1", WAIT).block();
+        registry.tryLock("ACLK:1", WAIT).subscribe(locked -> granted.add(1));
+        registry.tryLock("ACLK:1", WAIT).subscribe(locked -> granted.add(2));
+
+        //when
+        registry.unlock("ACLK:1");
+
+        //then
+        assertEquals(List.of(1), granted);
+        registry.unlock("ACLK:1");
+        assertEquals(List.of(1, 2), granted);
+        registry.unlock("ACLK:1");
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void keysDoNotWaitForEachOther() {
+        //given
+        registry.tryLock("ACLK:1", WAIT).block();
+
+        //when
+        //then
+        StepVerifier.create(registry.tryLock("ACLK:2", WAIT))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void tryLockTimesOut() {
+        //given
+        registry.tryLock("ACLK:1", WAIT).block();
+
+        //when
+        //then
+        StepVerifier.withVirtualTime(() -> registry.tryLock("ACLK:1", WAIT))
+                .expectSubscription()
+                .thenAwait(WAIT)
+                .expectNext(false)
+                .verifyComplete();
+        registry.unlock("ACLK:1");
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void cancelledWaiterIsSkipped() {
+        //given
+        List<Integer> granted = new ArrayList<>();
+        registry.tryLock("ACLK:1", WAIT).block();
+        Disposable cancelled = registry.tryLock("ACLK:1", WAIT).subscribe(locked -> granted.add(1));
+        registry.tryLock("ACLK:1", WAIT).subscribe(locked -> granted.add(2));
+
+        //when
+        cancelled.dispose();
+        registry.unlock("ACLK:1");
+
+        //then
+        assertEquals(List.of(2), granted);
+    }
+
+    @Test
+    void cancelAfterGrantLeavesLockWithHolder() {
+        //given
+        TestPublisher<Boolean> downstream = TestPublisher.create();
+        registry.tryLock("ACLK:1", WAIT).block();
+        Disposable holder = registry.tryLock("ACLK:1", WAIT)
+                .flatMap(locked -> downstream.mono())
+                .subscribe();
+        registry.unlock("ACLK:1");
+
+        //when
+        holder.dispose();
+
+        //then
+        registry.unlock("ACLK:1");
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void unlockNotHeld() {
+        //given
+        //when
+        //then
+        assertThrows(IllegalMonitorStateException.class, () -> registry.unlock("ACLK:1"));
+    }
+}
@@ -0,0 +1,135 @@
+package com.hmw.reactive.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLockReactive;
+import org.redisson.api.RedissonReactiveClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveLockServiceTest {
+    @Mock
+    private RedissonReactiveClient redissonReactiveClient;
+
+    @Mock
+    private RLockReactive rLock;
+
+    @InjectMocks
+    private ReactiveLockService lockService;
+
+    @Test
+    void successWithLock() {
+        //given
+        given(redissonReactiveClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .willReturn(Mono.just(true));
+        given(rLock.unlock(anyLong()))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(lockService.withLock("1000000012", Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+        verify(redissonReactiveClient).getLock("ACLK:1000000012");
+        verify(rLock).tryLock(longThat(wait -> wait <= 1000L), eq(5000L), eq(TimeUnit.MILLISECONDS), eq(1L));
+        verify(rLock).unlock(1L);
+    }
+
+    @Test
+    void failedWithLock() {
+        //given
+        given(redissonReactiveClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .willReturn(Mono.just(false));
+
+        //when
+        //then
+        StepVerifier.create(lockService.withLock("1000000012", Mono.just("done")))
+                .verifyErrorSatisfies(e -> {
+                    assertInstanceOf(AccountException.class, e);
+                    assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, ((AccountException) e).getErrorCode());
+                });
+        verify(rLock, never()).unlock(anyLong());
+    }
+
+    @Test
+    void failedWithLockReleasesLocalQueue() {
+        //given
+        given(redissonReactiveClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .willReturn(Mono.just(false))
+                .willReturn(Mono.just(true));
+        given(rLock.unlock(anyLong()))
+                .willReturn(Mono.empty());
+
+        //when
+        lockService.withLock("1000000012", Mono.just("done")).onErrorResume(e -> Mono.empty()).block();
+
+        //then
+        StepVerifier.create(lockService.withLock("1000000012", Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+    }
+
+    @Test
+    void unlockAfterFailedAction() {
+        //given
+        given(redissonReactiveClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .willReturn(Mono.just(true));
+        given(rLock.unlock(anyLong()))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(lockService.withLock("1000000012",
+                        Mono.error(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE))))
+                .verifyError(AccountException.class);
+        StepVerifier.create(lockService.withLock("1000000012", Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+        verify(rLock, times(2)).unlock(anyLong());
+    }
+
+    @Test
+    void failedUnlockDoesNotFailAction() {
+        //given
+        given(redissonReactiveClient.getLock(anyString()))
+                .willReturn(rLock);
+        given(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .willReturn(Mono.just(true));
+        given(rLock.unlock(anyLong()))
+                .willReturn(Mono.error(new IllegalMonitorStateException("lease expired")))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(lockService.withLock("1000000012", Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+        StepVerifier.create(lockService.withLock("1000000012", Mono.just("done")))
+                .expectNext("done")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,248 @@
+package com.hmw.reactive.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.service.TransactionIdGenerator;
+import com.hmw.account.type.AccountStatus;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import com.hmw.reactive.domain.AccountRow;
+import com.hmw.reactive.domain.TransactionRow;
+import com.hmw.reactive.repository.PooledIdAllocator;
+import com.hmw.reactive.repository.ReactiveAccountRepository;
+import com.hmw.reactive.repository.ReactiveAccountUserRepository;
+import com.hmw.reactive.repository.ReactiveTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTransactionServiceTest {
+    private static final String TRANSACTION_ID = "0000000000000000000000000000beef";
+
+    @Mock
+    private ReactiveTransactionRepository transactionRepository;
+
+    @Mock
+    private ReactiveAccountUserRepository accountUserRepository;
+
+    @Mock
+    private ReactiveAccountRepository accountRepository;
+
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    private PooledIdAllocator transactionRowIds;
+
+    @InjectMocks
+    private ReactiveTransactionService transactionService;
+
+    @Test
+    void successUseBalance() {
+        //given
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(Mono.just(true));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account(12L, 10000L)));
+        given(accountRepository.save(any()))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        givenTransactionSaved();
+        ArgumentCaptor<TransactionRow> captor = ArgumentCaptor.forClass(TransactionRow.class);
+
+        //when
+        //then
+        StepVerifier.create(transactionService.useBalance(12L, "1000000012", 1000L))
+                .assertNext(transaction -> {
+                    assertEquals("1000000012", transaction.getAccountNumber());
+                    assertEquals(TransactionResultType.S, transaction.getTransactionResultType());
+                    assertEquals(9000L, transaction.getBalanceSnapshot());
+                    assertEquals(TRANSACTION_ID, transaction.getTransactionId());
+                })
+                .verifyComplete();
+        verify(transactionRepository).insert(captor.capture());
+        assertEquals(101L, captor.getValue().getId());
+        assertEquals(TransactionType.USE, captor.getValue().getTransactionType());
+        assertEquals(1000L, captor.getValue().getAmount());
+        assertEquals(TRANSACTION_ID, TransactionRow.fromColumn(captor.getValue().getTransactionId()));
+    }
+
+    @Test
+    void useBalance_UserNotFound() {
+        //given
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(Mono.just(false));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account(12L, 10000L)));
+
+        //when
+        //then
+        StepVerifier.create(transactionService.useBalance(12L, "1000000012", 1000L))
+                .verifyErrorSatisfies(e -> assertErrorCode(ErrorCode.USER_NOT_FOUND, e));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void useBalance_AmountExceedBalance() {
+        //given
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(Mono.just(true));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account(12L, 100L)));
+
+        //when
+        //then
+        StepVerifier.create(transactionService.useBalance(12L, "1000000012", 1000L))
+                .verifyErrorSatisfies(e -> assertErrorCode(ErrorCode.AMOUNT_EXCEED_BALANCE, e));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void useBalance_SubLedgeredAccount() {
+        //given
+        AccountRow account = account(12L, 10000L);
+        account.setBalanceSlots(4);
+        given(accountUserRepository.existsById(anyLong()))
+                .willReturn(Mono.just(true));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account));
+
+        //when
+        //then
+        StepVerifier.create(transactionService.useBalance(12L, "1000000012", 1000L))
+                .verifyErrorSatisfies(e -> assertErrorCode(ErrorCode.INVALID_REQUESTS, e));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void cancelBalance_TransactionAccountUnMatch() {
+        //given
+        given(transactionRepository.findByTransactionId(any()))
+                .willReturn(Mono.just(transaction(2L, 1000L)));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account(12L, 10000L)));
+
+        //when
+        //then
+        StepVerifier.create(transactionService.cancelBalance(TRANSACTION_ID, "1000000012", 1000L))
+                .verifyErrorSatisfies(e -> assertErrorCode(ErrorCode.TRANSACTION_ACCOUNT_UN_MATCH, e));
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void successCancelBalance() {
+        //given
+        given(transactionRepository.findByTransactionId(any()))
+                .willReturn(Mono.just(transaction(1L, 1000L)));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account(12L, 9000L)));
+        given(accountRepository.save(any()))
+                .willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        givenTransactionSaved();
+
+        //when
+        //then
+        StepVerifier.create(transactionService.cancelBalance(TRANSACTION_ID, "1000000012", 1000L))
+                .assertNext(transaction -> {
+                    assertEquals(TransactionType.CANCEL, transaction.getTransactionType());
+                    assertEquals(10000L, transaction.getBalanceSnapshot());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void saveFailedTransaction() {
+        //given
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.just(account(12L, 10000L)));
+        givenTransactionSaved();
+        ArgumentCaptor<TransactionRow> captor = ArgumentCaptor.forClass(TransactionRow.class);
+
+        //when
+        //then
+        StepVerifier.create(transactionService.saveFailedTransaction(TransactionType.USE, "1000000012", 1000L))
+                .verifyComplete();
+        verify(transactionRepository).insert(captor.capture());
+        assertEquals(TransactionResultType.F, captor.getValue().getTransactionResultType());
+        assertEquals(10000L, captor.getValue().getBalanceSnapshot());
+    }
+
+    @Test
+    void saveFailedTransaction_AccountNotFound() {
+        //given
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(transactionService.saveFailedTransaction(TransactionType.USE, "1000000012", 1000L))
+                .verifyComplete();
+        verify(transactionRepository, never()).insert(any());
+    }
+
+    @Test
+    void queryTransaction_TransactionNotFound() {
+        //given
+        given(transactionRepository.findQueryRowByTransactionId(any()))
+                .willReturn(Mono.empty());
+
+        //when
+        //then
+        StepVerifier.create(transactionService.queryTransaction(TRANSACTION_ID))
+                .verifyErrorSatisfies(e -> assertErrorCode(ErrorCode.TRANSACTION_NOT_FOUND, e));
+    }
+
+    private void givenTransactionSaved() {
+        given(transactionIdGenerator.next())
+                .willReturn(TRANSACTION_ID);
+        given(transactionRowIds.next())
+                .willReturn(Mono.just(101L));
+        given(transactionRepository.insert(any()))
+                .willReturn(Mono.empty());
+    }
+
+    private static void assertErrorCode(ErrorCode errorCode, Throwable e) {
+        assertInstanceOf(AccountException.class, e);
+        assertEquals(errorCode, ((AccountException) e).getErrorCode());
+    }
+
+    private static AccountRow account(Long userId, Long balance) {
+        return AccountRow.builder()
+                .id(1L)
+                .accountUserId(userId)
+                .accountNumber("1000000012")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(balance)
+                .version(0L)
+                .build();
+    }
+
+    private static TransactionRow transaction(Long accountId, Long amount) {
+        return TransactionRow.builder()
+                .id(1L)
+                .accountId(accountId)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .amount(amount)
+                .balanceSnapshot(9000L)
+                .transactionId(TransactionRow.toColumn(TRANSACTION_ID))
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
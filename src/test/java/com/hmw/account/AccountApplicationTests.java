@@ -3,7 +3,7 @@ package com.hmw.account;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "account.lock.backend=memory")
 class AccountApplicationTests {
 
 	@Test
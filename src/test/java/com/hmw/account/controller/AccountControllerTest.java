@@ -4,17 +4,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hmw.account.dto.AccountDto;
 import com.hmw.account.dto.CreateAccount;
 import com.hmw.account.dto.DeleteAccount;
+import com.hmw.account.dto.ResizeBalanceSlots;
 import com.hmw.account.service.AccountService;
+import com.hmw.account.service.SubLedgerService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
@@ -25,10 +30,15 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AccountController.class)
+// GlobalExceptionHandler counts errors on it
+@Import(SimpleMeterRegistry.class)
 class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    @MockBean
+    private SubLedgerService subLedgerService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -117,4 +127,27 @@ class AccountControllerTest {
                  .andExpect(jsonPath("$[2].balance")
                          .value(30000));
      }
-}
\ No newline at end of file
+
+    @Test
+    public void success_resizeBalanceSlots() throws Exception {
+        //given
+        given(subLedgerService.resize(anyLong(), anyString(), anyInt()))
+                .willReturn(AccountDto.builder()
+                        .userId(1L)
+                        .accountNumber("1234567890")
+                        .balance(10000L)
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(put("/account/balance-slots")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new ResizeBalanceSlots.Request(1L, "1234567890", 8)
+                        )))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value("1234567890"))
+                .andExpect(jsonPath("$.balanceSlots").value(8))
+                .andExpect(jsonPath("$.balance").value(10000));
+    }
+}
@@ -0,0 +1,89 @@
+package com.hmw.account.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.dto.DeleteAccount;
+import com.hmw.account.service.AccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the JDBC statements each account endpoint prepares, once the user is cached.
+ */
+@SpringBootTest(properties = {
+        "account.lock.backend=memory",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class AccountStatementCountTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String accountNumber;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        accountNumber = accountService.createAccount(2L, 0L).getAccountNumber();
+        getAccounts();
+    }
+
+    @Test
+    public void getAccountByUserId() throws Exception {
+        //given
+        statistics.clear();
+
+        //when
+        getAccounts();
+
+        //then
+        // the summaries alone, without the accounts' owner
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void deleteAccount() throws Exception {
+        //given
+        statistics.clear();
+
+        //when
+        mockMvc.perform(delete("/account")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new DeleteAccount.Request(2L, accountNumber))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(accountNumber));
+
+        //then
+        // account, account update
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    private void getAccounts() throws Exception {
+        mockMvc.perform(get("/account").param("user_id", "2"))
+                .andExpect(status().isOk());
+    }
+}
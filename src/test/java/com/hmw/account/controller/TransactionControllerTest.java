@@ -1,41 +1,81 @@
 package com.hmw.account.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
 import com.hmw.account.dto.CancelBalance;
+import com.hmw.account.dto.QueryTransactionResponse;
 import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.TransactionHistory;
+import com.hmw.account.dto.TransactionHistoryItem;
 import com.hmw.account.dto.UseBalance;
+import com.hmw.account.dto.UseBalanceBatch;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.service.BalanceBatchService;
+import com.hmw.account.service.FailedTransactionRecorder;
+import com.hmw.account.service.TransactionExportService;
+import com.hmw.account.service.TransactionQueryCache;
 import com.hmw.account.service.TransactionService;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.ExportFormat;
 import com.hmw.account.type.TransactionResultType;
 import com.hmw.account.type.TransactionType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TransactionController.class)
+// GlobalExceptionHandler counts errors on it
+@Import(SimpleMeterRegistry.class)
 class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private BalanceBatchService balanceBatchService;
+
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private TransactionQueryCache transactionQueryCache;
+
+    @MockBean
+    private FailedTransactionRecorder failedTransactionRecorder;
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
 
 
     @Test
@@ -67,6 +107,26 @@ class TransactionControllerTest {
 
      }
 
+    @Test
+    public void failUseBalance_countsError() throws Exception {
+        //given
+        given(transactionService.useBalance(anyLong(), anyString(), anyLong()))
+                .willThrow(new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE));
+
+        //when
+        mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, "1234567890", 4000L))))
+                .andExpect(jsonPath("$.errorCode").value("AMOUNT_EXCEED_BALANCE"));
+
+        //then
+        verify(failedTransactionRecorder).recordUse("1234567890", 4000L);
+        assertEquals(1, meterRegistry.get("account.errors")
+                .tag("code", ErrorCode.AMOUNT_EXCEED_BALANCE.name())
+                .counter().count());
+    }
+
      @Test
      public void success_cancelBalance() throws Exception{
          //given
@@ -98,8 +158,8 @@ class TransactionControllerTest {
       @Test
       public void success_queryResponse() throws Exception{
           //given
-          given(transactionService.queryTransaction(anyString()))
-                  .willReturn(TransactionDto.builder()
+          given(transactionQueryCache.get(anyString()))
+                  .willReturn(QueryTransactionResponse.builder()
                           .transactionId("transactionId")
                           .transactionType(TransactionType.USE)
                           .amount(1000L)
@@ -111,6 +171,8 @@ class TransactionControllerTest {
           mockMvc.perform(get("/transaction/12345"))
                   .andDo(print())
                   .andExpect(status().isOk())
+                  .andExpect(header().string("ETag", "\"12345\""))
+                  .andExpect(header().string("Cache-Control", "max-age=31536000, private, immutable"))
                   .andExpect(jsonPath("$.accountNumber").value("1234567890"))
                   .andExpect(jsonPath("$.transactionType").value("USE"))
                   .andExpect(jsonPath("$.transactionResultType").value("S"))
@@ -119,4 +181,123 @@ class TransactionControllerTest {
           //then
 
        }
-}
\ No newline at end of file
+
+    @Test
+    public void queryResponse_notModified() throws Exception {
+        //given
+        given(transactionQueryCache.get("12345"))
+                .willReturn(QueryTransactionResponse.builder()
+                        .transactionId("12345")
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(get("/transaction/12345")
+                        .header("If-None-Match", "\"12345\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void queryResponse_unknownIdIsNotNotModified() throws Exception {
+        //given
+        given(transactionQueryCache.get("12345"))
+                .willThrow(new AccountException(ErrorCode.TRANSACTION_NOT_FOUND));
+
+        //when
+        //then
+        mockMvc.perform(get("/transaction/12345")
+                        .header("If-None-Match", "\"12345\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.errorCode").value("TRANSACTION_NOT_FOUND"));
+    }
+
+    @Test
+    public void success_useBalanceBatch() throws Exception {
+        //given
+        given(balanceBatchService.apply(anyList()))
+                .willReturn(List.of(
+                        BalanceMutationResult.success(
+                                BalanceMutation.use(1L, "1234567890", 1000L),
+                                TransactionDto.builder()
+                                        .accountNumber("1234567890")
+                                        .transactionId("transactionId")
+                                        .amount(1000L)
+                                        .transactionResultType(TransactionResultType.S)
+                                        .build()),
+                        BalanceMutationResult.failure(
+                                BalanceMutation.use(1L, "1234567890", 9000L),
+                                new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE))));
+
+        //when
+        //then
+        mockMvc.perform(post("/transaction/use/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalanceBatch.Request(List.of(
+                                        new UseBalance.Request(1L, "1234567890", 1000L),
+                                        new UseBalance.Request(1L, "1234567890", 9000L)
+                                )))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].transactionResultType").value("S"))
+                .andExpect(jsonPath("$.items[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.items[1].transactionResultType").value("F"))
+                .andExpect(jsonPath("$.items[1].amount").value(9000L))
+                .andExpect(jsonPath("$.items[1].errorCode").value("AMOUNT_EXCEED_BALANCE"));
+    }
+
+    @Test
+    public void success_getTransactionHistory() throws Exception {
+        //given
+        given(transactionService.getTransactionHistory(
+                eq("1234567890"), eq("cursor"), eq(2), eq(TransactionType.USE), isNull()))
+                .willReturn(TransactionHistory.builder()
+                        .accountNumber("1234567890")
+                        .transactions(List.of(TransactionHistoryItem.builder()
+                                .id(1L)
+                                .transactionId("transactionId")
+                                .transactionType(TransactionType.USE)
+                                .amount(1000L)
+                                .build()))
+                        .nextCursor("nextCursor")
+                        .build());
+
+        //when
+        //then
+        mockMvc.perform(get("/account/1234567890/transactions")
+                        .param("cursor", "cursor")
+                        .param("size", "2")
+                        .param("transaction_type", "USE"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactions[0].transactionId").value("transactionId"))
+                .andExpect(jsonPath("$.transactions[0].id").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("nextCursor"));
+    }
+
+    @Test
+    public void success_exportTransactions() throws Exception {
+        //given
+        given(transactionExportService.getAccountId("1234567890"))
+                .willReturn(1L);
+        willAnswer(invocation -> {
+            java.io.OutputStream outputStream = invocation.getArgument(5);
+            outputStream.write("transactionId\nt1\n".getBytes());
+            return null;
+        }).given(transactionExportService)
+                .export(eq(1L), isNull(), isNull(), eq(ExportFormat.CSV), eq(false), any());
+
+        //when
+        MvcResult result = mockMvc.perform(get("/account/1234567890/transactions/export")
+                        .param("format", "CSV"))
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"1234567890-transactions.csv\""))
+                .andExpect(content().string("transactionId\nt1\n"));
+    }
+}
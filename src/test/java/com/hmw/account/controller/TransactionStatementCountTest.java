@@ -0,0 +1,134 @@
+package com.hmw.account.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.dto.CancelBalance;
+import com.hmw.account.dto.UseBalance;
+import com.hmw.account.service.AccountService;
+import com.hmw.account.service.FailedTransactionRecorder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the JDBC statements each endpoint prepares, once the id sequences are warmed up.
+ */
+@SpringBootTest(properties = {
+        "account.lock.backend=memory",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class TransactionStatementCountTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private FailedTransactionRecorder failedTransactionRecorder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String accountNumber;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        accountNumber = accountService.createAccount(1L, 1_000_000L).getAccountNumber();
+        useBalance(100L, "S");
+        useBalance(1_000_000_000L, "F");
+        failedTransactionRecorder.awaitWritten(5000L);
+    }
+
+    @Test
+    public void useBalance() throws Exception {
+        //given
+        statistics.clear();
+
+        //when
+        useBalance(100L, "S");
+
+        //then
+        // account, transaction insert, account update; the user is a cache hit
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void useBalance_failed() throws Exception {
+        //given
+        statistics.clear();
+
+        //when
+        useBalance(1_000_000_000L, "F");
+        failedTransactionRecorder.awaitWritten(5000L);
+
+        //then
+        // account, then the same again and the F insert from the background writer
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void cancelBalance() throws Exception {
+        //given
+        String transactionId = useBalance(100L, "S");
+        statistics.clear();
+
+        //when
+        mockMvc.perform(post("/transaction/cancel")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CancelBalance.Request(transactionId, accountNumber, 100L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionResultType").value("S"));
+
+        //then
+        // transaction with its account, transaction insert, account update
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void queryTransaction() throws Exception {
+        //given
+        String transactionId = useBalance(100L, "S");
+        statistics.clear();
+
+        //when
+        mockMvc.perform(get("/transaction/{transactionId}", transactionId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountNumber").value(accountNumber));
+
+        //then
+        // the projection, joining only the account
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private String useBalance(Long amount, String resultType) throws Exception {
+        String response = mockMvc.perform(post("/transaction/use")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UseBalance.Request(1L, accountNumber, amount))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(resultType.equals("S") ? "$.transactionResultType" : "$.errorCode")
+                        .value(resultType.equals("S") ? "S" : "AMOUNT_EXCEED_BALANCE"))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).path("transactionId").asText();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hmw.account.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "account.lock.backend=memory")
+class AccountNumberSequenceRepositoryTest {
+    @Autowired
+    private AccountNumberSequenceRepository accountNumberSequenceRepository;
+
+    @Test
+    void blockSizeIsTheIncrement() {
+        //given
+        //when
+        int blockSize = accountNumberSequenceRepository.blockSize();
+        long first = accountNumberSequenceRepository.nextBlockStart();
+        long second = accountNumberSequenceRepository.nextBlockStart();
+
+        //then
+        // as in schema.sql
+        assertEquals(100, blockSize);
+        assertEquals(blockSize, second - first);
+    }
+}
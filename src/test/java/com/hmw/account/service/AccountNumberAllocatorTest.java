@@ -0,0 +1,79 @@
+package com.hmw.account.service;
+
+import com.hmw.account.repository.AccountNumberSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+    @Mock
+    private AccountNumberSequenceRepository accountNumberSequenceRepository;
+
+    @Test
+    public void allocateWithinBlock() {
+        //given
+        given(accountNumberSequenceRepository.blockSize())
+                .willReturn(3);
+        given(accountNumberSequenceRepository.nextBlockStart())
+                .willReturn(1000000000L, 1000000003L);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(accountNumberSequenceRepository);
+
+        //when
+        List<String> numbers = List.of(allocator.next(), allocator.next(), allocator.next(), allocator.next());
+
+        //then
+        assertEquals(List.of("1000000000", "1000000001", "1000000002", "1000000003"), numbers);
+        verify(accountNumberSequenceRepository, times(2)).nextBlockStart();
+        verify(accountNumberSequenceRepository, times(1)).blockSize();
+    }
+
+    @Test
+    public void concurrentAllocationIsUnique() throws Exception {
+        //given
+        AtomicLong sequence = new AtomicLong(1000000000L);
+        given(accountNumberSequenceRepository.nextBlockStart())
+                .willAnswer(invocation -> sequence.getAndAdd(10));
+        given(accountNumberSequenceRepository.blockSize())
+                .willReturn(10);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(accountNumberSequenceRepository);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            //when
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    List<String> numbers = new ArrayList<>();
+                    for (int j = 0; j < 1000; j++) {
+                        numbers.add(allocator.next());
+                    }
+                    return numbers;
+                }));
+            }
+
+            Set<String> allocated = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                allocated.addAll(future.get(10, TimeUnit.SECONDS));
+            }
+
+            //then
+            assertEquals(8000, allocated.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.hmw.account.service;
 import com.hmw.account.domain.Account;
 import com.hmw.account.domain.AccountUser;
 import com.hmw.account.dto.AccountDto;
+import com.hmw.account.dto.AccountSummary;
 import com.hmw.account.exception.AccountException;
 import com.hmw.account.repository.AccountRepository;
 import com.hmw.account.repository.AccountUserRepository;
@@ -14,6 +15,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.annotation.Documented;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +36,18 @@ class AccountServiceTest {
     @Mock
     private AccountUserRepository accountUserRepository;
 
+    @Mock
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Mock
+    private SubLedgerService subLedgerService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private ReplicaReadRouter replicaReadRouter = new ReplicaReadRouter(false, Duration.ofSeconds(2), 100);
+
     @InjectMocks
     private AccountService accountService;
 
@@ -49,10 +63,8 @@ class AccountServiceTest {
         given(accountUserRepository.findById(anyLong()))
                 .willReturn(Optional.of(pobi));
 
-        given(accountRepository.findFirstByOrderByIdDesc())
-                .willReturn(Optional.of(Account.builder()
-                        .accountNumber("1234567890")
-                        .build()));
+        given(accountNumberAllocator.next())
+                .willReturn("1234567891");
 
 
         given(accountRepository.save(any()))
@@ -115,8 +127,8 @@ class AccountServiceTest {
            given(accountUserRepository.findById(anyLong()))
                    .willReturn(Optional.of(user));
 
-           given(accountRepository.findFirstByOrderByIdDesc())
-                   .willReturn(Optional.empty());
+           given(accountNumberAllocator.next())
+                   .willReturn("1000000000");
 
            given(accountRepository.save(any())).willReturn(Account.builder()
                    .accountUser(user)
@@ -299,43 +311,25 @@ class AccountServiceTest {
                           .name("user")
                           .build();
 
-                  List<Account> accounts = Arrays.asList(
-                          Account.builder()
-                                  .id(1L)
-                                  .accountUser(user)
-                                  .accountNumber("1234567890")
-                                  .balance(10000L).build(),
-
-                          Account.builder()
-                                  .id(2L)
-                                  .accountUser(user)
-                                  .accountNumber("2345678901")
-                                  .balance(20000L).build(),
-
-                          Account.builder()
-                                  .id(3L)
-                                  .accountUser(user)
-                                  .accountNumber("3456789012")
-                                  .balance(30000L).build()
+                  List<AccountSummary> accounts = Arrays.asList(
+                          new AccountSummary(1L, 12L, "1234567890", 10000L, null, null, null, null),
+                          new AccountSummary(2L, 12L, "2345678901", 20000L, null, null, null, null),
+                          new AccountSummary(3L, 12L, "3456789012", 30000L, null, null, null, null)
                   );
 
                   given(accountUserRepository.findById(anyLong()))
                           .willReturn(Optional.of(user));
 
-                  given(accountRepository.findByAccountUser(any()))
+                  given(accountRepository.findSummariesByUserId(12L))
                           .willReturn(accounts);
 
                   //when
-                  accountService.getAccountByUserId(1L);
+                  List<AccountDto> accountDtos = accountService.getAccountByUserId(12L);
 
                   //then
-                  assertEquals(1L, accounts.get(0).getId());
-                  assertEquals(2L, accounts.get(1).getId());
-                  assertEquals(3L, accounts.get(2).getId());
-
-                  assertEquals("1234567890", accounts.get(0).getAccountNumber());
-                  assertEquals(12, accounts.get(2).getAccountUser().getId());
-                  assertEquals(20000, accounts.get(1).getBalance());
-
+                  assertEquals(3, accountDtos.size());
+                  assertEquals("1234567890", accountDtos.get(0).getAccountNumber());
+                  assertEquals(12, accountDtos.get(2).getUserId());
+                  assertEquals(20000, accountDtos.get(1).getBalance());
                }
 }
\ No newline at end of file
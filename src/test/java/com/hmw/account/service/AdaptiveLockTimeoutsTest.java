@@ -0,0 +1,50 @@
+package com.hmw.account.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveLockTimeoutsTest {
+    private final AdaptiveLockTimeouts adaptiveLockTimeouts =
+            new AdaptiveLockTimeouts(100, 4, 200, 10_000);
+
+    @Test
+    public void fallbackToAnnotationWithoutSamples() {
+        //when
+        //then
+        assertEquals(5000L, adaptiveLockTimeouts.leaseTime("endpoint", 5000L));
+        assertEquals(1000L, adaptiveLockTimeouts.waitTime("endpoint", 1000L, 50));
+    }
+
+    @Test
+    public void leaseFollowsP99HoldTime() {
+        //given
+        record("endpoint", 100, 50);
+
+        //when
+        //then
+        assertEquals(50L, adaptiveLockTimeouts.p99HoldTimeMillis("endpoint"));
+        assertEquals(200L, adaptiveLockTimeouts.leaseTime("endpoint", 5000L));
+        assertEquals(100L, adaptiveLockTimeouts.leaseTime("endpoint", 100L));
+    }
+
+    @Test
+    public void waitGrowsWithQueueLength() {
+        //given
+        record("endpoint", 100, 20);
+
+        //when
+        //then
+        assertEquals(1000L, adaptiveLockTimeouts.waitTime("endpoint", 1000L, 0));
+        assertEquals(2020L, adaptiveLockTimeouts.waitTime("endpoint", 1000L, 100));
+        assertEquals(10_000L, adaptiveLockTimeouts.waitTime("endpoint", 1000L, 10_000));
+    }
+
+    private void record(String endpoint, int count, long holdTimeMillis) {
+        for (int i = 0; i < count; i++) {
+            adaptiveLockTimeouts.recordHoldTime(endpoint, TimeUnit.MILLISECONDS.toNanos(holdTimeMillis));
+        }
+    }
+}
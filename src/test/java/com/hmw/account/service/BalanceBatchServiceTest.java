@@ -0,0 +1,103 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceBatchServiceTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private OptimisticRetryPolicy optimisticRetryPolicy;
+
+    @Mock
+    private LockMetrics lockMetrics;
+
+    @Mock
+    private ObjectProvider<ShardedBalanceExecutor> shardedBalanceExecutor;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private BalanceBatchService balanceBatchService;
+
+    @Test
+    public void applyGroupedByAccount() {
+        //given
+        given(transactionService.applyMutations(anyList()))
+                .willAnswer(invocation -> {
+                    List<BalanceMutation> mutations = invocation.getArgument(0);
+                    return mutations.stream()
+                            .map(mutation -> BalanceMutationResult.success(mutation, TransactionDto.builder()
+                                    .accountNumber(mutation.getAccountNumber())
+                                    .amount(mutation.getAmount())
+                                    .build()))
+                            .toList();
+                });
+
+        //when
+        List<BalanceMutationResult> results = balanceBatchService.apply(List.of(
+                BalanceMutation.use(1L, "1111111111", 100L),
+                BalanceMutation.use(2L, "2222222222", 200L),
+                BalanceMutation.use(1L, "1111111111", 300L)));
+
+        //then
+        verify(lockService, times(1)).lock("1111111111");
+        verify(lockService, times(1)).unlock("1111111111");
+        verify(lockService, times(1)).lock("2222222222");
+        verify(transactionService, times(2)).applyMutations(anyList());
+        assertEquals(List.of(100L, 200L, 300L), results.stream()
+                .map(result -> result.getTransaction().getAmount())
+                .toList());
+    }
+
+    @Test
+    public void applyLockFailed() {
+        //given
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock(anyString());
+
+        //when
+        List<BalanceMutationResult> results = balanceBatchService.apply(List.of(
+                BalanceMutation.use(1L, "1111111111", 100L),
+                BalanceMutation.use(1L, "1111111111", 300L)));
+
+        //then
+        verify(transactionService, never()).applyMutations(anyList());
+        verify(lockService, never()).unlock(anyString());
+        assertEquals(2, results.size());
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, results.get(0).getError().getErrorCode());
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, results.get(1).getError().getErrorCode());
+        assertEquals(2, meterRegistry.get("account.errors")
+                .tag("code", ErrorCode.ACCOUNT_TRANSACTION_LOCK.name())
+                .counter().count());
+    }
+}
@@ -0,0 +1,146 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.FailedAttempt;
+import com.hmw.account.type.FailureOverflowPolicy;
+import com.hmw.account.type.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FailedTransactionRecorderTest {
+    @Mock
+    private TransactionService transactionService;
+
+    @Captor
+    private ArgumentCaptor<List<FailedAttempt>> captor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void attemptsAreWrittenInBatches() throws Exception {
+        //given
+        List<Integer> batchSizes = new ArrayList<>();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<List<FailedAttempt>>getArgument(0).size());
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(transactionService).saveFailedTransactions(anyList());
+        FailedTransactionRecorder recorder = recorder(100, FailureOverflowPolicy.CALLER_RUNS);
+        recorder.start();
+
+        //when
+        // the rest queue up while the writer is busy with the first
+        recorder.recordUse("1000000012", 1000L);
+        writing.await();
+        for (int i = 0; i < 24; i++) {
+            recorder.recordUse("1000000012", 1000L);
+        }
+        release.countDown();
+        boolean written = recorder.awaitWritten(5000L);
+        recorder.stop();
+
+        //then
+        assertTrue(written);
+        assertEquals(List.of(1, 10, 10, 4), batchSizes);
+    }
+
+    @Test
+    void attemptIsWrittenByCallerWhenNotRunning() {
+        //given
+        FailedTransactionRecorder recorder = recorder(100, FailureOverflowPolicy.DROP);
+
+        //when
+        recorder.recordCancel("1000000012", 1000L);
+
+        //then
+        verify(transactionService).saveFailedTransactions(captor.capture());
+        assertEquals(TransactionType.CANCEL, captor.getValue().get(0).getTransactionType());
+        assertEquals("1000000012", captor.getValue().get(0).getAccountNumber());
+    }
+
+    @Test
+    void fullQueueDropsUnderDropPolicy() throws Exception {
+        //given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(transactionService).saveFailedTransactions(anyList());
+        FailedTransactionRecorder recorder = recorder(1, FailureOverflowPolicy.DROP);
+        recorder.start();
+
+        //when
+        // the writer takes the first, the second fills the queue, the rest are dropped
+        recorder.recordUse("1000000012", 1000L);
+        writing.await();
+        for (int i = 0; i < 4; i++) {
+            recorder.recordUse("1000000012", 1000L);
+        }
+        release.countDown();
+        recorder.stop();
+
+        //then
+        assertEquals(3.0, meterRegistry.get("account.failures.dropped").counter().count());
+        verify(transactionService, times(2)).saveFailedTransactions(anyList());
+    }
+
+    @Test
+    void stopFlushesQueuedAttempts() {
+        //given
+        List<FailedAttempt> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0)))
+                .when(transactionService).saveFailedTransactions(anyList());
+        FailedTransactionRecorder recorder = recorder(100, FailureOverflowPolicy.CALLER_RUNS);
+        recorder.start();
+
+        //when
+        recorder.recordUse("1000000012", 1000L);
+        recorder.recordUse("1000000012", 2000L);
+        recorder.stop();
+
+        //then
+        assertEquals(2, written.size());
+        assertEquals(2000L, written.get(1).getAmount());
+    }
+
+    @Test
+    void writeFailureIsCountedAsLost() {
+        //given
+        FailedTransactionRecorder recorder = recorder(100, FailureOverflowPolicy.CALLER_RUNS);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("db down");
+        }).when(transactionService).saveFailedTransactions(anyList());
+
+        //when
+        recorder.recordUse("1000000012", 1000L);
+
+        //then
+        assertEquals(1.0, meterRegistry.get("account.failures.lost").counter().count());
+    }
+
+    private FailedTransactionRecorder recorder(int capacity, FailureOverflowPolicy overflowPolicy) {
+        return new FailedTransactionRecorder(
+                transactionService, meterRegistry, capacity, 10, 20L, overflowPolicy);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.HotAccount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotAccountTrackerTest {
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void hotAccountSurvivesColdTraffic() {
+        //given
+        HotAccountTracker tracker = new HotAccountTracker(10, 3, WINDOW, meterRegistry);
+
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            tracker.record("1000000000", TimeUnit.MILLISECONDS.toNanos(2), i % 100 != 0);
+            tracker.record(String.valueOf(2000000000L + i), 0, true);
+        }
+
+        //then
+        List<HotAccount> top = tracker.top(3);
+        assertEquals(3, top.size());
+        assertEquals("1000000000", top.get(0).getAccountNumber());
+        assertEquals(10_000, top.get(0).getLockAttempts());
+        assertEquals(0, top.get(0).getOverestimation());
+        assertEquals(100, top.get(0).getLockFailures());
+        assertEquals(2.0, top.get(0).getAverageWaitMillis(), 0.001);
+        assertEquals(10, tracker.top(100).size());
+    }
+
+    @Test
+    void replacedAccountInheritsCount() {
+        //given
+        HotAccountTracker tracker = new HotAccountTracker(2, 2, WINDOW, meterRegistry);
+        tracker.record("1", 0, true);
+        tracker.record("1", 0, true);
+        tracker.record("1", 0, true);
+        tracker.record("2", 0, true);
+        tracker.record("2", 0, true);
+        tracker.record("3", 0, true);
+        tracker.record("4", 0, true);
+
+        //when
+        tracker.record("5", TimeUnit.MILLISECONDS.toNanos(6), false);
+        tracker.record("5", 0, true);
+        tracker.record("5", 0, true);
+
+        //then
+        List<HotAccount> top = tracker.top(10);
+        assertEquals(List.of("5", "1"), top.stream().map(HotAccount::getAccountNumber).toList());
+        HotAccount replaced = top.stream()
+                .filter(hotAccount -> hotAccount.getAccountNumber().equals("5"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(4, replaced.getLockAttempts());
+        assertEquals(1, replaced.getOverestimation());
+        assertEquals(1, replaced.getLockFailures());
+        assertEquals(2.0, replaced.getAverageWaitMillis(), 0.001);
+    }
+
+    @Test
+    void cooledDownAccountLeavesAfterTwoWindows() {
+        //given
+        HotAccountTracker tracker = new HotAccountTracker(10, 3, WINDOW, meterRegistry);
+        tracker.record("1", 0, true);
+        tracker.record("1", 0, true);
+
+        //when
+        tracker.rotate();
+        tracker.record("1", 0, true);
+        tracker.record("2", 0, true);
+        List<HotAccount> afterOneWindow = tracker.top(10);
+        tracker.rotate();
+        tracker.rotate();
+
+        //then
+        assertEquals(3, afterOneWindow.get(0).getLockAttempts());
+        assertEquals(2, afterOneWindow.size());
+        assertTrue(tracker.top(10).isEmpty());
+    }
+
+    @Test
+    void recordsConcurrently() throws Exception {
+        //given
+        HotAccountTracker tracker = new HotAccountTracker(10, 3, WINDOW, meterRegistry);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record("1000000000", 0, true);
+                    tracker.record(String.valueOf(2000000000L + i), 0, true);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        HotAccount hottest = tracker.top(1).get(0);
+        assertEquals("1000000000", hottest.getAccountNumber());
+        assertEquals(40_000, hottest.getLockAttempts());
+    }
+
+    @Test
+    void publishesTopAccountsAsGauges() {
+        //given
+        HotAccountTracker tracker = new HotAccountTracker(10, 1, WINDOW, meterRegistry);
+        tracker.record("1", 0, true);
+        tracker.record("1", 0, false);
+        tracker.record("2", 0, true);
+
+        //when
+        tracker.publish();
+
+        //then
+        assertEquals(2.0, meterRegistry.get("account.lock.hot.attempts").tag("account", "1").gauge().value());
+        assertEquals(1.0, meterRegistry.get("account.lock.hot.failures").tag("account", "1").gauge().value());
+        assertEquals(1, meterRegistry.get("account.lock.hot.attempts").gauges().size());
+    }
+}
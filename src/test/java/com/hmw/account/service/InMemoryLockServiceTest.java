@@ -0,0 +1,72 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryLockServiceTest {
+    private final InMemoryLockService lockService = new InMemoryLockService();
+
+    @Test
+    public void successGetLock() {
+        //when
+        assertDoesNotThrow(() -> lockService.lock("1000000000"));
+
+        //then
+        assertDoesNotThrow(() -> lockService.unlock("1000000000"));
+    }
+
+    @Test
+    public void failedGetLockHeldByOtherThread() throws Exception {
+        //given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        lockService.lock("1000000000");
+
+        try {
+            //when
+            Future<AccountException> other = executor.submit(() -> assertThrows(AccountException.class,
+                    () -> lockService.lock("1000000000")));
+
+            //then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK,
+                    other.get(5, TimeUnit.SECONDS).getErrorCode());
+        } finally {
+            lockService.unlock("1000000000");
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void differentAccountsDoNotBlock() throws Exception {
+        //given
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        lockService.lock("1000000000");
+
+        try {
+            //when
+            Future<?> other = executor.submit(() -> {
+                lockService.lock("1000000001");
+                lockService.unlock("1000000001");
+            });
+
+            //then
+            assertDoesNotThrow(() -> other.get(500, TimeUnit.MILLISECONDS));
+        } finally {
+            lockService.unlock("1000000000");
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void unlockWithoutLock() {
+        assertThrows(IllegalMonitorStateException.class,
+                () -> lockService.unlock("1000000000"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.hmw.account.service;
+
+import com.hmw.account.domain.Account;
+import com.hmw.account.domain.AccountCheckpoint;
+import com.hmw.account.domain.LedgerEntry;
+import com.hmw.account.dto.LedgerPosition;
+import com.hmw.account.dto.LedgerVerification;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.AccountCheckpointRepository;
+import com.hmw.account.repository.AccountRepository;
+import com.hmw.account.repository.LedgerEntryRepository;
+import com.hmw.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountCheckpointRepository accountCheckpointRepository;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    @Test
+    public void append_nextSequence() {
+        //given
+        Account account = account(1000L, 5L);
+        given(ledgerEntryRepository.findPosition(1L, 5L, Long.MAX_VALUE))
+                .willReturn(new LedgerPosition(8L, -300L));
+        ArgumentCaptor<LedgerEntry> captor = ArgumentCaptor.forClass(LedgerEntry.class);
+
+        //when
+        Long balance = ledgerService.append(account, -100L);
+
+        //then
+        verify(ledgerEntryRepository, times(1)).saveAndFlush(captor.capture());
+        assertEquals(9L, captor.getValue().getSequence());
+        assertEquals(-100L, captor.getValue().getDelta());
+        assertEquals(600L, balance);
+    }
+
+    @Test
+    public void append_AMOUNT_EXCEED_BALANCE() {
+        //given
+        Account account = account(1000L, null);
+        given(ledgerEntryRepository.findPosition(1L, 0L, Long.MAX_VALUE))
+                .willReturn(new LedgerPosition(3L, -950L));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> ledgerService.append(account, -100L));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(ledgerEntryRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void append_sequenceTakenIsConflict() {
+        //given
+        Account account = account(1000L, 0L);
+        given(ledgerEntryRepository.findPosition(1L, 0L, Long.MAX_VALUE))
+                .willReturn(new LedgerPosition(0L, 0L));
+        given(ledgerEntryRepository.saveAndFlush(any()))
+                .willThrow(new DataIntegrityViolationException("uk_ledger_entry_account_sequence"));
+
+        //when
+        //then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> ledgerService.append(account, -100L));
+    }
+
+    @Test
+    public void checkpoint_firstRecordsOpeningBalance() {
+        //given
+        Account account = account(1000L, null);
+        given(accountRepository.findById(1L))
+                .willReturn(Optional.of(account));
+        given(ledgerEntryRepository.findPosition(1L, 0L, Long.MAX_VALUE))
+                .willReturn(new LedgerPosition(4L, -400L));
+        given(accountRepository.checkpoint(1L, 0L, 4L, 600L))
+                .willReturn(1);
+        ArgumentCaptor<AccountCheckpoint> captor = ArgumentCaptor.forClass(AccountCheckpoint.class);
+
+        //when
+        boolean moved = ledgerService.checkpoint(1L);
+
+        //then
+        assertTrue(moved);
+        verify(accountCheckpointRepository, times(2)).save(captor.capture());
+        assertEquals(0L, captor.getAllValues().get(0).getSequence());
+        assertEquals(1000L, captor.getAllValues().get(0).getBalance());
+        assertEquals(4L, captor.getAllValues().get(1).getSequence());
+        assertEquals(600L, captor.getAllValues().get(1).getBalance());
+    }
+
+    @Test
+    public void checkpoint_lostToAnotherNode() {
+        //given
+        Account account = account(600L, 4L);
+        given(accountRepository.findById(1L))
+                .willReturn(Optional.of(account));
+        given(ledgerEntryRepository.findPosition(1L, 4L, Long.MAX_VALUE))
+                .willReturn(new LedgerPosition(6L, 50L));
+        given(accountRepository.checkpoint(1L, 4L, 6L, 650L))
+                .willReturn(0);
+
+        //when
+        boolean moved = ledgerService.checkpoint(1L);
+
+        //then
+        assertFalse(moved);
+        verify(accountCheckpointRepository, never()).save(any());
+    }
+
+    @Test
+    public void verify_detectsTamperedCheckpoint() {
+        //given
+        Account account = account(700L, 4L);
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(account));
+        given(ledgerEntryRepository.findPosition(1L, 4L, Long.MAX_VALUE))
+                .willReturn(new LedgerPosition(5L, -100L));
+        given(accountCheckpointRepository.findBefore(anyLong(), any(), any()))
+                .willReturn(List.of(AccountCheckpoint.builder().sequence(0L).balance(1000L).build()));
+        given(ledgerEntryRepository.findPosition(1L, 0L, 4L))
+                .willReturn(new LedgerPosition(4L, -400L));
+
+        //when
+        LedgerVerification verification = ledgerService.verify("1234567890");
+
+        //then
+        assertEquals(600L, verification.getBalance());
+        assertEquals(5L, verification.getLastSequence());
+        assertEquals(600L, verification.getRebuiltCheckpointBalance());
+        assertFalse(verification.isConsistent());
+    }
+
+    private Account account(Long balance, Long checkpointSequence) {
+        return Account.builder()
+                .id(1L)
+                .accountNumber("1234567890")
+                .balance(balance)
+                .checkpointSequence(checkpointSequence)
+                .build();
+    }
+}
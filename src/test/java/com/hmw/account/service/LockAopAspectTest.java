@@ -1,15 +1,28 @@
 package com.hmw.account.service;
 
+import com.hmw.account.aop.AccountLock;
 import com.hmw.account.dto.UseBalance;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionMode;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -18,26 +31,133 @@ class LockAopAspectTest {
     @Mock
     private LockService lockService;
 
+    @Mock
+    private AdaptiveLockTimeouts adaptiveLockTimeouts;
+
+    @Mock
+    private OptimisticRetryPolicy optimisticRetryPolicy;
+
+    @Mock
+    private LockMetrics lockMetrics;
+
+    @Mock
+    private HotAccountTracker hotAccountTracker;
+
     @Mock
     private ProceedingJoinPoint proceedingJoinPoint;
 
+    @Mock
+    private Signature signature;
+
     @InjectMocks
     private LockAopAspect lockAopAspect;
 
     @Test
     public void lockAndUnlock() throws Throwable {
         //given
+        given(proceedingJoinPoint.getSignature()).willReturn(signature);
         ArgumentCaptor<String> lockCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> unLockCaptor = ArgumentCaptor.forClass(String.class);
         UseBalance.Request request = new UseBalance.Request(123L, "1234", 100L);
 
         //when
-        lockAopAspect.aroundMethod(proceedingJoinPoint, request);
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("fixedLock"), request);
 
         //then
-        verify(lockService, times(1)).lock(lockCaptor.capture());
+        verify(lockService, times(1)).lock(lockCaptor.capture(), eq(300L), eq(2000L));
         verify(lockService, times(1)).unlock(unLockCaptor.capture());
         assertEquals("1234", lockCaptor.getValue());
         assertEquals("1234", unLockCaptor.getValue());
+        verify(lockMetrics, times(1)).recordWait(any(), anyLong(), eq(true));
+        verify(lockMetrics, times(1)).recordHold(any(), anyLong());
+        InOrder inOrder = inOrder(lockService, hotAccountTracker);
+        inOrder.verify(lockService).unlock("1234");
+        inOrder.verify(hotAccountTracker).record(eq("1234"), anyLong(), eq(true));
      }
-}
\ No newline at end of file
+
+    @Test
+    public void adaptiveLockUsesComputedTimes() throws Throwable {
+        //given
+        given(proceedingJoinPoint.getSignature()).willReturn(signature);
+        given(signature.toShortString()).willReturn("endpoint");
+        given(lockService.getQueueLength("1234")).willReturn(3);
+        given(adaptiveLockTimeouts.waitTime("endpoint", 1000L, 3)).willReturn(4000L);
+        given(adaptiveLockTimeouts.leaseTime("endpoint", 5000L)).willReturn(1500L);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234", 100L);
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("adaptiveLock"), request);
+
+        //then
+        verify(lockService, times(1)).lock("1234", 4000L, 1500L);
+        verify(adaptiveLockTimeouts, times(1)).recordHoldTime(eq("endpoint"), anyLong());
+        verify(lockService, times(1)).unlock("1234");
+    }
+
+    @Test
+    public void lockRejectionIsRecorded() throws Throwable {
+        //given
+        given(proceedingJoinPoint.getSignature()).willReturn(signature);
+        given(signature.toShortString()).willReturn("endpoint");
+        willThrow(new AccountException(ErrorCode.ACCOUNT_TRANSACTION_LOCK))
+                .given(lockService).lock("1234", 300L, 2000L);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234", 100L);
+
+        //when
+        assertThrows(AccountException.class,
+                () -> lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("fixedLock"), request));
+
+        //then
+        verify(lockMetrics, times(1)).recordWait(eq("endpoint"), anyLong(), eq(false));
+        verify(lockMetrics, never()).recordHold(anyString(), anyLong());
+        verify(hotAccountTracker, times(1)).record(eq("1234"), anyLong(), eq(false));
+        verify(lockMetrics, times(1)).recordEndpoint(
+                eq("endpoint"), eq("LOCKED"), eq("ACCOUNT_TRANSACTION_LOCK"), anyLong());
+        verify(proceedingJoinPoint, never()).proceed();
+        verify(lockService, never()).unlock(anyString());
+    }
+
+    @Test
+    public void atomicModeSkipsLock() throws Throwable {
+        //given
+        ReflectionTestUtils.setField(lockAopAspect, "transactionMode", TransactionMode.ATOMIC);
+        given(proceedingJoinPoint.getSignature()).willReturn(signature);
+        UseBalance.Request request = new UseBalance.Request(123L, "1234", 100L);
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("fixedLock"), request);
+
+        //then
+        verify(proceedingJoinPoint, times(1)).proceed();
+        verify(lockService, never()).lock(anyString(), anyLong(), anyLong());
+        verify(lockService, never()).unlock(anyString());
+    }
+
+    @Test
+    public void optimisticModeRetriesWithoutLock() throws Throwable {
+        //given
+        ReflectionTestUtils.setField(lockAopAspect, "transactionMode", TransactionMode.OPTIMISTIC);
+        given(proceedingJoinPoint.getSignature()).willReturn(signature);
+        given(signature.toShortString()).willReturn("endpoint");
+        UseBalance.Request request = new UseBalance.Request(123L, "1234", 100L);
+
+        //when
+        lockAopAspect.aroundMethod(proceedingJoinPoint, accountLock("fixedLock"), request);
+
+        //then
+        verify(optimisticRetryPolicy, times(1)).execute(eq("endpoint"), any());
+        verify(lockService, never()).lock(anyString(), anyLong(), anyLong());
+    }
+
+    private AccountLock accountLock(String methodName) throws NoSuchMethodException {
+        return LockAopAspectTest.class.getDeclaredMethod(methodName).getAnnotation(AccountLock.class);
+    }
+
+    @AccountLock(tryLockTime = 300L, leaseTime = 2000L)
+    private void fixedLock() {
+    }
+
+    @AccountLock(adaptive = true)
+    private void adaptiveLock() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.hmw.account.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LockMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LockMetrics lockMetrics = new LockMetrics(meterRegistry);
+
+    @Test
+    void waitIsTaggedByOutcome() {
+        //given
+        //when
+        lockMetrics.recordWait("endpoint", TimeUnit.MILLISECONDS.toNanos(3), true);
+        lockMetrics.recordWait("endpoint", TimeUnit.MILLISECONDS.toNanos(5), false);
+        lockMetrics.recordHold("endpoint", TimeUnit.MILLISECONDS.toNanos(7));
+
+        //then
+        assertEquals(1, meterRegistry.get("account.lock.wait")
+                .tags("endpoint", "endpoint", "outcome", "acquired").timer().count());
+        assertEquals(5.0, meterRegistry.get("account.lock.wait")
+                .tags("endpoint", "endpoint", "outcome", "rejected").timer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(7.0, meterRegistry.get("account.lock.hold")
+                .tag("endpoint", "endpoint").timer().totalTime(TimeUnit.MILLISECONDS));
+    }
+}
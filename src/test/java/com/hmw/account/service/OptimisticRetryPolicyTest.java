@@ -0,0 +1,73 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticRetryPolicyTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticRetryPolicy optimisticRetryPolicy =
+            new OptimisticRetryPolicy(meterRegistry, 3, 1, 2);
+
+    @Test
+    public void retryUntilSuccess() throws Throwable {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        String result = optimisticRetryPolicy.execute("endpoint", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", 1L);
+            }
+            return "done";
+        });
+
+        //then
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.counter("account.optimistic.conflicts", "endpoint", "endpoint").count());
+        assertEquals(2.0, meterRegistry.counter("account.optimistic.retries", "endpoint", "endpoint").count());
+    }
+
+    @Test
+    public void giveUpAfterMaxAttempts() {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> optimisticRetryPolicy.execute("endpoint", () -> {
+                    calls.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException("Account", 1L);
+                }));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.counter("account.optimistic.exhausted", "endpoint", "endpoint").count());
+    }
+
+    @Test
+    public void accountExceptionIsNotRetried() {
+        //given
+        AtomicInteger calls = new AtomicInteger();
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> optimisticRetryPolicy.execute("endpoint", () -> {
+                    calls.incrementAndGet();
+                    throw new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE);
+                }));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        assertEquals(1, calls.get());
+    }
+}
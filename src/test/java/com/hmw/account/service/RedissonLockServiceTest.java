@@ -0,0 +1,205 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RedissonLockServiceTest {
+    @Mock
+    private RedissonClient redissonClient;
+
+    @Mock
+    private RLock rLock;
+
+    @InjectMocks
+    private RedissonLockService lockService;
+
+    @Test
+    public void successGetLock() throws InterruptedException {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(true));
+
+        //when
+        assertDoesNotThrow(() -> lockService.lock("123"));
+
+        //then
+     }
+
+     @Test
+     public void filedGetLock() throws InterruptedException {
+         //given
+         given(redissonClient.getLock(anyString()))
+                 .willReturn(rLock);
+
+         given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                 .willReturn(new CompletableFutureWrapper<>(false));
+
+         //when
+         AccountException exception = assertThrows(AccountException.class,
+                 () -> lockService.lock("123"));
+         //then
+         assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+      }
+
+    @Test
+    public void lockKeyPerAccount() throws InterruptedException {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(true));
+
+        given(rLock.unlockAsync(anyLong()))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+
+        //when
+        lockService.lock("1000000000");
+        lockService.unlock("1000000000");
+
+        //then
+        verify(redissonClient, times(2)).getLock("ACLK:1000000000");
+    }
+
+    @Test
+    public void sameAccountQueuesLocally() throws Exception {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(true));
+
+        // released by the other thread, possibly after the test is over
+        lenient().when(rLock.unlockAsync(anyLong()))
+                .thenReturn(new CompletableFutureWrapper<>((Void) null));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            executor.submit(() -> {
+                lockService.lock("1000000000");
+                locked.countDown();
+                release.await();
+                lockService.unlock("1000000000");
+                return null;
+            });
+            locked.await(1, TimeUnit.SECONDS);
+
+            //when
+            AccountException exception = assertThrows(AccountException.class,
+                    () -> lockService.lock("1000000000"));
+
+            //then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+            verify(rLock, times(1)).tryLockAsync(anyLong(), anyLong(), any(), anyLong());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void differentAccountsDoNotBlock() throws Exception {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(true));
+
+        given(rLock.unlockAsync(anyLong()))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            lockService.lock("1000000000");
+
+            //when
+            Future<?> other = executor.submit(() -> {
+                lockService.lock("1000000001");
+                lockService.unlock("1000000001");
+            });
+
+            //then
+            assertDoesNotThrow(() -> other.get(500, TimeUnit.MILLISECONDS));
+            lockService.unlock("1000000000");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void lockOwnedByRequestThread() throws Exception {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(true));
+
+        given(rLock.unlockAsync(anyLong()))
+                .willReturn(new CompletableFutureWrapper<>((Void) null));
+
+        //when
+        Thread request = Thread.ofVirtual().start(() -> {
+            lockService.lock("1000000000");
+            lockService.unlock("1000000000");
+        });
+        request.join(1000);
+
+        //then
+        verify(rLock).tryLockAsync(anyLong(), anyLong(), any(), eq(request.threadId()));
+        verify(rLock).unlockAsync(request.threadId());
+    }
+
+    @Test
+    public void expiredLeaseDoesNotFailUnlock() {
+        //given
+        given(redissonClient.getLock(anyString()))
+                .willReturn(rLock);
+
+        given(rLock.tryLockAsync(anyLong(), anyLong(), any(), anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(true));
+
+        given(rLock.unlockAsync(anyLong()))
+                .willReturn(new CompletableFutureWrapper<>(new IllegalMonitorStateException("lease expired")));
+
+        lockService.lock("1000000000");
+
+        //when
+        assertDoesNotThrow(() -> lockService.unlock("1000000000"));
+
+        //then
+        assertEquals(0, lockService.getQueueLength("1000000000"));
+        assertDoesNotThrow(() -> lockService.lock("1000000000"));
+    }
+}
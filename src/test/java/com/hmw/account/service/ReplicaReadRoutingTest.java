@@ -0,0 +1,114 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.AccountDto;
+import com.hmw.account.dto.TransactionDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two H2 databases: the replica is a copy of the primary taken at startup and never updated,
+ * so whatever a read returns shows which of the two it went to.
+ */
+@SpringBootTest(properties = {
+        "account.lock.backend=memory",
+        "spring.datasource.url=jdbc:h2:mem:routing-primary",
+        "account.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:routing-replica",
+        "account.datasource.replica.max-lag=1m"
+})
+@ActiveProfiles("replica")
+class ReplicaReadRoutingTest {
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionQueryCache transactionQueryCache;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Test
+    void readOnlyServiceMethodReadsReplica() {
+        //given
+        // only the replica has this account
+        new JdbcTemplate(replicaDataSource).update(
+                "insert into account(id, account_user_id, account_number, account_status, balance, version) " +
+                        "values (900000, 3, '9999999999', 'IN_USE', 700, 0)");
+
+        //when
+        List<AccountDto> accounts = accountService.getAccountByUserId(3L);
+
+        //then
+        assertTrue(accounts.stream().anyMatch(account -> account.getAccountNumber().equals("9999999999")));
+        assertEquals(0, count(primaryDataSource, "select count(*) from account where account_user_id = 3"));
+    }
+
+    @Test
+    void pointLookupReadsReplica() {
+        //given
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.update("insert into account(id, account_user_id, account_number, account_status, balance, version) " +
+                "values (900001, 3, '9999999998', 'IN_USE', 0, 0)");
+        replica.update("insert into transaction(id, account_id, transaction_id, transaction_type, " +
+                "transaction_result_type, amount, balance_snapshot) " +
+                "values (900001, 900001, X'0000000000000000000000000000beef', 'USE', 'S', 10, 0)");
+
+        //when
+        TransactionDto transaction = transactionService.queryTransaction("0000000000000000000000000000beef");
+
+        //then
+        assertEquals("9999999998", transaction.getAccountNumber());
+    }
+
+    @Test
+    void writesGoToPrimaryAndTheWriterReadsThem() {
+        //given
+        String accountNumber = accountService.createAccount(2L, 1000L).getAccountNumber();
+
+        //when
+        TransactionDto used = transactionService.useBalance(2L, accountNumber, 300L);
+        List<AccountDto> accounts = accountService.getAccountByUserId(2L);
+
+        //then
+        assertEquals(0, count(replicaDataSource, "select count(*) from account where account_number = ?", accountNumber));
+        assertTrue(accounts.stream().anyMatch(account ->
+                account.getAccountNumber().equals(accountNumber) && account.getBalance() == 700L));
+        assertEquals(700L, used.getBalanceSnapshot());
+    }
+
+    @Test
+    void newTransactionIsFoundOnPrimary() {
+        //given
+        String accountNumber = accountService.createAccount(1L, 1000L).getAccountNumber();
+        String transactionId = transactionService.useBalance(1L, accountNumber, 100L).getTransactionId();
+
+        //when
+        TransactionDto transaction = transactionService.queryTransaction(transactionId);
+
+        //then
+        assertEquals(accountNumber, transaction.getAccountNumber());
+        assertEquals(accountNumber, transactionQueryCache.get(transactionId).getAccountNumber());
+        assertEquals(0, count(replicaDataSource, "select count(*) from account where account_number = ?", accountNumber));
+    }
+
+    private static long count(DataSource dataSource, String sql, Object... args) {
+        return new JdbcTemplate(dataSource).queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,139 @@
+package com.hmw.account.service;
+
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
+import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionResultType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedBalanceExecutorTest {
+    @Mock
+    private TransactionService transactionService;
+
+    private ShardedBalanceExecutor shardedBalanceExecutor;
+
+    @BeforeEach
+    void setUp() {
+        shardedBalanceExecutor = new ShardedBalanceExecutor(transactionService, 4, 16, 8, 5000);
+        shardedBalanceExecutor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        shardedBalanceExecutor.stop();
+    }
+
+    @Test
+    public void executeOnShard() {
+        //given
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        given(transactionService.applyMutations(anyList()))
+                .willAnswer(invocation -> {
+                    threads.add(Thread.currentThread().getName());
+                    List<BalanceMutation> mutations = invocation.getArgument(0);
+                    return mutations.stream()
+                            .map(mutation -> BalanceMutationResult.success(mutation, TransactionDto.builder()
+                                    .accountNumber(mutation.getAccountNumber())
+                                    .amount(mutation.getAmount())
+                                    .transactionResultType(TransactionResultType.S)
+                                    .build()))
+                            .toList();
+                });
+
+        //when
+        TransactionDto first = shardedBalanceExecutor.execute(BalanceMutation.use(1L, "1234567890", 100L));
+        TransactionDto second = shardedBalanceExecutor.execute(BalanceMutation.use(1L, "1234567890", 200L));
+
+        //then
+        assertEquals(100L, first.getAmount());
+        assertEquals(200L, second.getAmount());
+        assertEquals(Set.of("balance-shard-" + shardedBalanceExecutor.shardIndex("1234567890")), threads);
+    }
+
+    @Test
+    public void executeFailed() {
+        //given
+        given(transactionService.applyMutations(anyList()))
+                .willAnswer(invocation -> {
+                    List<BalanceMutation> mutations = invocation.getArgument(0);
+                    return mutations.stream()
+                            .map(mutation -> BalanceMutationResult.failure(mutation,
+                                    new AccountException(ErrorCode.AMOUNT_EXCEED_BALANCE)))
+                            .toList();
+                });
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> shardedBalanceExecutor.execute(BalanceMutation.use(1L, "1234567890", 100L)));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+    }
+
+    @Test
+    public void timedOutMutationIsNeverApplied() throws Exception {
+        //given
+        AtomicLong balance = new AtomicLong(10_000L);
+        CountDownLatch shardBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(transactionService.applyMutations(anyList()))
+                .willAnswer(invocation -> {
+                    shardBusy.countDown();
+                    release.await();
+                    List<BalanceMutation> mutations = invocation.getArgument(0);
+                    return mutations.stream()
+                            .map(mutation -> BalanceMutationResult.success(mutation, TransactionDto.builder()
+                                    .amount(mutation.getAmount())
+                                    .balanceSnapshot(balance.addAndGet(-mutation.getAmount()))
+                                    .build()))
+                            .toList();
+                });
+        ShardedBalanceExecutor executor = new ShardedBalanceExecutor(transactionService, 1, 16, 8, 200);
+        executor.start();
+        ExecutorService clients = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<TransactionDto> first = clients.submit(
+                    () -> executor.execute(BalanceMutation.use(1L, "1234567890", 100L)));
+            shardBusy.await(1, TimeUnit.SECONDS);
+
+            //when
+            AccountException exception = assertThrows(AccountException.class,
+                    () -> executor.execute(BalanceMutation.use(1L, "1234567890", 200L)));
+            release.countDown();
+
+            //then
+            assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+            // taken by the shard before the timeout, so it completes instead of failing
+            assertEquals(9_900L, first.get(1, TimeUnit.SECONDS).getBalanceSnapshot());
+            assertEquals(9_600L, executor.execute(BalanceMutation.use(1L, "1234567890", 300L)).getBalanceSnapshot());
+            assertEquals(9_600L, balance.get());
+        } finally {
+            release.countDown();
+            clients.shutdown();
+            executor.stop();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.hmw.account.service;
+
+import com.hmw.account.exception.AccountException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ATOMIC mode takes no account lock, so debits run right into resizes of the same account.
+ */
+@SpringBootTest(properties = {
+        "account.lock.backend=memory",
+        "account.transaction.mode=ATOMIC",
+        "spring.datasource.url=jdbc:h2:mem:sub-ledger-resize"
+})
+class SubLedgerResizeConcurrencyTest {
+    private static final long INITIAL_BALANCE = 100_000L;
+    private static final long AMOUNT = 7L;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private SubLedgerService subLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void resizeRacingDebitsKeepsBalance() throws Exception {
+        //given
+        String accountNumber = accountService.createAccount(1L, INITIAL_BALANCE).getAccountNumber();
+        subLedgerService.resize(1L, accountNumber, 4);
+        AtomicBoolean resizing = new AtomicBoolean(true);
+        AtomicInteger used = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+
+        //when
+        List<Future<?>> debits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            debits.add(executor.submit(() -> {
+                while (resizing.get()) {
+                    try {
+                        transactionService.useBalance(1L, accountNumber, AMOUNT);
+                        used.incrementAndGet();
+                    } catch (AccountException | OptimisticLockingFailureException e) {
+                        // the slots or the account row moved under the debit; nothing was taken
+                    }
+                }
+            }));
+        }
+        Future<?> resizes = executor.submit(() -> {
+            try {
+                int[] sizes = {2, 1, 3, 8, 1, 4};
+                for (int i = 0; i < 60; i++) {
+                    subLedgerService.resize(1L, accountNumber, sizes[i % sizes.length]);
+                }
+            } finally {
+                resizing.set(false);
+            }
+        });
+        resizes.get(60, TimeUnit.SECONDS);
+        for (Future<?> debit : debits) {
+            debit.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        //then
+        assertTrue(used.get() > 0);
+        Long balance = jdbcTemplate.queryForObject(
+                "select a.balance + coalesce((select sum(s.balance) from account_balance_slot s " +
+                        "where s.account_id = a.id), 0) from account a where a.account_number = ?",
+                Long.class, accountNumber);
+        assertEquals(INITIAL_BALANCE - used.get() * AMOUNT, balance);
+    }
+}
@@ -0,0 +1,271 @@
+package com.hmw.account.service;
+
+import com.hmw.account.domain.Account;
+import com.hmw.account.domain.AccountBalanceSlot;
+import com.hmw.account.domain.AccountUser;
+import com.hmw.account.dto.AccountDto;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.AccountBalanceSlotRepository;
+import com.hmw.account.repository.AccountRepository;
+import com.hmw.account.repository.AccountUserRepository;
+import com.hmw.account.type.AccountStatus;
+import com.hmw.account.type.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SubLedgerServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private AccountUserRepository accountUserRepository;
+
+    @Mock
+    private AccountBalanceSlotRepository accountBalanceSlotRepository;
+
+    @Mock
+    private LockService lockService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SubLedgerService subLedgerService;
+
+    @Test
+    public void useBalance_fromOneSlot() {
+        //given
+        Account account = subLedgeredAccount(4);
+        given(accountBalanceSlotRepository.findBalances(1L))
+                .willReturn(List.of(250L, 250L, 250L, 250L));
+        given(accountBalanceSlotRepository.useIfSufficient(eq(1L), anyInt(), eq(100L)))
+                .willReturn(1);
+
+        //when
+        Long balance = subLedgerService.useBalance(account, 100L);
+
+        //then
+        assertEquals(900L, balance);
+        verify(accountBalanceSlotRepository, times(1)).useIfSufficient(eq(1L), anyInt(), eq(100L));
+        verify(accountBalanceSlotRepository, never()).lockAll(anyLong());
+    }
+
+    @Test
+    public void useBalance_rebalancesWhenNoSlotCovers() {
+        //given
+        Account account = subLedgeredAccount(4);
+        given(accountBalanceSlotRepository.findBalances(1L))
+                .willReturn(List.of(26L, 26L, 26L, 25L));
+        given(accountBalanceSlotRepository.lockAll(1L))
+                .willReturn(4);
+        given(accountBalanceSlotRepository.sumBalance(1L))
+                .willReturn(103L);
+
+        //when
+        Long balance = subLedgerService.useBalance(account, 100L);
+
+        //then
+        assertEquals(3L, balance);
+        verify(accountBalanceSlotRepository, never()).useIfSufficient(anyLong(), anyInt(), anyLong());
+        verify(accountBalanceSlotRepository, times(1)).lockAll(1L);
+        verify(accountBalanceSlotRepository).setBalance(1L, 0, 1L);
+        verify(accountBalanceSlotRepository).setBalance(1L, 1, 1L);
+        verify(accountBalanceSlotRepository).setBalance(1L, 2, 1L);
+        verify(accountBalanceSlotRepository).setBalance(1L, 3, 0L);
+    }
+
+    @Test
+    public void useBalance_rebalancesOverSlotsLeftByResize() {
+        //given
+        // read with 4 slots, resized to 2 before the rebalance locked them
+        Account account = subLedgeredAccount(4);
+        given(accountBalanceSlotRepository.findBalances(1L))
+                .willReturn(List.of(26L, 26L, 26L, 25L));
+        given(accountBalanceSlotRepository.lockAll(1L))
+                .willReturn(2);
+        given(accountBalanceSlotRepository.sumBalance(1L))
+                .willReturn(103L);
+
+        //when
+        Long balance = subLedgerService.useBalance(account, 100L);
+
+        //then
+        assertEquals(3L, balance);
+        verify(accountBalanceSlotRepository).setBalance(1L, 0, 2L);
+        verify(accountBalanceSlotRepository).setBalance(1L, 1, 1L);
+        verify(accountBalanceSlotRepository, times(2)).setBalance(eq(1L), anyInt(), anyLong());
+    }
+
+    @Test
+    public void useBalance_foldedMeanwhile() {
+        //given
+        Account account = subLedgeredAccount(4);
+        given(accountBalanceSlotRepository.findBalances(1L))
+                .willReturn(List.of(26L, 26L, 26L, 25L));
+        given(accountBalanceSlotRepository.lockAll(1L))
+                .willReturn(0);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> subLedgerService.useBalance(account, 100L));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(accountBalanceSlotRepository, never()).setBalance(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void useBalance_AMOUNT_EXCEED_BALANCE() {
+        //given
+        Account account = subLedgeredAccount(2);
+        given(accountBalanceSlotRepository.findBalances(1L))
+                .willReturn(List.of(50L, 49L));
+        given(accountBalanceSlotRepository.lockAll(1L))
+                .willReturn(2);
+        given(accountBalanceSlotRepository.sumBalance(1L))
+                .willReturn(99L);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> subLedgerService.useBalance(account, 100L));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(accountBalanceSlotRepository, never()).setBalance(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void useBalance_slotDrainedMeanwhile() {
+        //given
+        Account account = subLedgeredAccount(2);
+        given(accountBalanceSlotRepository.findBalances(1L))
+                .willReturn(List.of(500L, 0L));
+        given(accountBalanceSlotRepository.useIfSufficient(1L, 0, 100L))
+                .willReturn(0);
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> subLedgerService.useBalance(account, 100L));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_TRANSACTION_LOCK, exception.getErrorCode());
+        verify(accountBalanceSlotRepository, never()).lockAll(anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void resize_splitsBalance() {
+        //given
+        AccountUser user = AccountUser.builder().id(1L).build();
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(1000L)
+                .build();
+        given(accountUserRepository.findById(1L))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findLockedByAccountNumber("1234567890"))
+                .willReturn(Optional.of(account));
+        inTransaction();
+        given(accountBalanceSlotRepository.sumBalance(1L))
+                .willReturn(0L);
+        ArgumentCaptor<List<AccountBalanceSlot>> captor = ArgumentCaptor.forClass(List.class);
+
+        //when
+        AccountDto accountDto = subLedgerService.resize(1L, "1234567890", 3);
+
+        //then
+        verify(accountBalanceSlotRepository, times(1)).saveAll(captor.capture());
+        assertEquals(List.of(334L, 333L, 333L),
+                captor.getValue().stream().map(AccountBalanceSlot::getBalance).toList());
+        assertEquals(0L, account.getBalance());
+        assertEquals(3, account.getBalanceSlots());
+        assertEquals(1000L, accountDto.getBalance());
+        InOrder inOrder = inOrder(lockService, transactionTemplate);
+        inOrder.verify(lockService).lock("1234567890");
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(lockService).unlock("1234567890");
+    }
+
+    @Test
+    public void resize_foldsBackIntoAccount() {
+        //given
+        AccountUser user = AccountUser.builder().id(1L).build();
+        Account account = subLedgeredAccount(4);
+        account.setAccountUser(user);
+        given(accountUserRepository.findById(1L))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findLockedByAccountNumber("1234567890"))
+                .willReturn(Optional.of(account));
+        inTransaction();
+        given(accountBalanceSlotRepository.sumBalance(1L))
+                .willReturn(750L);
+
+        //when
+        subLedgerService.resize(1L, "1234567890", 1);
+
+        //then
+        verify(accountBalanceSlotRepository, times(1)).deleteByAccountId(1L);
+        verify(accountBalanceSlotRepository, never()).saveAll(any());
+        assertEquals(750L, account.getBalance());
+        assertNull(account.getBalanceSlots());
+    }
+
+    @Test
+    public void resize_unlocksOnFailure() {
+        //given
+        inTransaction();
+        given(accountUserRepository.findById(1L))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> subLedgerService.resize(1L, "1234567890", 4));
+
+        //then
+        assertEquals(ErrorCode.USER_NOT_FOUND, exception.getErrorCode());
+        verify(lockService).unlock("1234567890");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void inTransaction() {
+        given(transactionTemplate.execute(any()))
+                .willAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+    }
+
+    private Account subLedgeredAccount(int slots) {
+        return Account.builder()
+                .id(1L)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .balance(0L)
+                .balanceSlots(slots)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.hmw.account.service;
+
+import com.hmw.account.domain.TransactionIdConverter;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedTransactionIdGeneratorTest {
+    private final TimeOrderedTransactionIdGenerator generator = new TimeOrderedTransactionIdGenerator(0x00ab);
+
+    @Test
+    public void nextIsTimeOrderedHex() throws InterruptedException {
+        //given
+        String first = generator.next();
+        Thread.sleep(2);
+
+        //when
+        String second = generator.next();
+
+        //then
+        assertTrue(first.matches("[0-9a-f]{32}"));
+        assertEquals("00ab", first.substring(12, 16));
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    public void consecutiveIdsAreNotAdjacent() {
+        //given
+        long previous = Long.parseUnsignedLong(generator.next().substring(16), 16);
+
+        for (int i = 0; i < 1_000; i++) {
+            //when
+            long low = Long.parseUnsignedLong(generator.next().substring(16), 16);
+
+            //then
+            // neither the next nor the previous id can be derived by stepping the low half
+            long gap = low - previous;
+            assertTrue(gap > 1_000_000 || gap < -1_000_000, "low halves " + previous + ", " + low);
+            previous = low;
+        }
+    }
+
+    @Test
+    public void nextIsUniqueAcrossThreads() throws Exception {
+        //given
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            futures.add(executorService.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    ids.add(generator.next());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        //then
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    public void storedAsSixteenBytes() {
+        //given
+        TransactionIdConverter converter = new TransactionIdConverter();
+        String transactionId = generator.next();
+
+        //when
+        byte[] stored = converter.convertToDatabaseColumn(transactionId);
+
+        //then
+        assertEquals(16, stored.length);
+        assertEquals(transactionId, converter.convertToEntityAttribute(stored));
+        assertEquals(0, converter.convertToDatabaseColumn("not-a-transaction-id").length);
+    }
+}
@@ -0,0 +1,117 @@
+package com.hmw.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hmw.account.domain.Account;
+import com.hmw.account.domain.Transaction;
+import com.hmw.account.repository.AccountRepository;
+import com.hmw.account.repository.TransactionRepository;
+import com.hmw.account.type.ExportFormat;
+import com.hmw.account.type.TransactionResultType;
+import com.hmw.account.type.TransactionType;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private TransactionExportService transactionExportService;
+
+    @BeforeEach
+    void setUp() {
+        transactionExportService = new TransactionExportService(
+                accountRepository, transactionRepository, entityManager,
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    public void exportCsv() throws Exception {
+        //given
+        given(transactionRepository.streamForExport(1L, null, null))
+                .willReturn(Stream.of(transaction("t1", 1000L), transaction("t2", 2000L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //when
+        transactionExportService.export(1L, null, null, ExportFormat.CSV, false, outputStream);
+
+        //then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("transactionId,accountNumber"));
+        assertTrue(lines[1].startsWith("t1,1234567890,USE,S,1000,"));
+        verify(entityManager, times(2)).detach(any());
+    }
+
+    @Test
+    public void exportCsv_failedAttemptWithoutSnapshot() throws Exception {
+        //given
+        Transaction failed = transaction("t1", 1000L);
+        failed.setTransactionResultType(TransactionResultType.F);
+        failed.setBalanceSnapshot(null);
+        given(transactionRepository.streamForExport(1L, null, null))
+                .willReturn(Stream.of(failed));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //when
+        transactionExportService.export(1L, null, null, ExportFormat.CSV, false, outputStream);
+
+        //then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[1].startsWith("t1,1234567890,USE,F,1000,,"));
+    }
+
+    @Test
+    public void exportNdjsonGzip() throws Exception {
+        //given
+        given(transactionRepository.streamForExport(1L, null, null))
+                .willReturn(Stream.of(transaction("t1", 1000L)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        //when
+        transactionExportService.export(1L, null, null, ExportFormat.NDJSON, true, outputStream);
+
+        //then
+        String body = new String(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray()))
+                .readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(body.startsWith("{"));
+        assertTrue(body.contains("\"transactionId\":\"t1\""));
+        assertTrue(body.endsWith("}\n"));
+    }
+
+    private Transaction transaction(String transactionId, Long amount) {
+        return Transaction.builder()
+                .transactionId(transactionId)
+                .transactionType(TransactionType.USE)
+                .transactionResultType(TransactionResultType.S)
+                .account(Account.builder().accountNumber("1234567890").build())
+                .amount(amount)
+                .balanceSnapshot(0L)
+                .transactedAt(LocalDateTime.now())
+                .build();
+    }
+}
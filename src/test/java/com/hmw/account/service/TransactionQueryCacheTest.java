@@ -0,0 +1,80 @@
+package com.hmw.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hmw.account.config.CacheConfig;
+import com.hmw.account.dto.QueryTransactionResponse;
+import com.hmw.account.exception.AccountException;
+import com.hmw.account.repository.TransactionRepository;
+import com.hmw.account.type.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionQueryCacheTest {
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ObjectProvider<RedissonClient> redissonClient;
+
+    private TransactionQueryCache transactionQueryCache;
+
+    @BeforeEach
+    void setUp() {
+        transactionQueryCache = new TransactionQueryCache(
+                transactionRepository, new ReplicaReadRouter(false, Duration.ofSeconds(2), 100),
+                new ObjectMapper(),
+                new ConcurrentMapCacheManager(CacheConfig.TRANSACTION_QUERY),
+                redissonClient, false, Duration.ofDays(1));
+    }
+
+    @Test
+    public void getReadThrough() {
+        //given
+        given(transactionRepository.findQueryResponseByTransactionId("transactionId"))
+                .willReturn(Optional.of(QueryTransactionResponse.builder()
+                        .transactionId("transactionId")
+                        .amount(1000L)
+                        .build()));
+
+        //when
+        QueryTransactionResponse first = transactionQueryCache.get("transactionId");
+        QueryTransactionResponse second = transactionQueryCache.get("transactionId");
+
+        //then
+        verify(transactionRepository, times(1)).findQueryResponseByTransactionId("transactionId");
+        assertEquals(1000L, first.getAmount());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void get_TRANSACTION_NOT_FOUND() {
+        //given
+        given(transactionRepository.findQueryResponseByTransactionId(anyString()))
+                .willReturn(Optional.empty());
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionQueryCache.get("transactionId"));
+        assertThrows(AccountException.class, () -> transactionQueryCache.get("transactionId"));
+
+        //then
+        assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
+        verify(transactionRepository, times(2)).findQueryResponseByTransactionId("transactionId");
+    }
+}
@@ -3,28 +3,42 @@ package com.hmw.account.service;
 import com.hmw.account.domain.Account;
 import com.hmw.account.domain.AccountUser;
 import com.hmw.account.domain.Transaction;
+import com.hmw.account.dto.AccountOwnership;
+import com.hmw.account.dto.BalanceMutation;
+import com.hmw.account.dto.BalanceMutationResult;
+import com.hmw.account.dto.FailedAttempt;
 import com.hmw.account.dto.TransactionDto;
+import com.hmw.account.dto.TransactionHistory;
+import com.hmw.account.dto.TransactionHistoryItem;
 import com.hmw.account.exception.AccountException;
 import com.hmw.account.repository.AccountRepository;
 import com.hmw.account.repository.AccountUserRepository;
 import com.hmw.account.repository.TransactionRepository;
 import com.hmw.account.type.AccountStatus;
 import com.hmw.account.type.ErrorCode;
+import com.hmw.account.type.TransactionMode;
 import com.hmw.account.type.TransactionResultType;
 import com.hmw.account.type.TransactionType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -37,6 +51,21 @@ class TransactionServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private TransactionIdGenerator transactionIdGenerator;
+
+    @Mock
+    private SubLedgerService subLedgerService;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Spy
+    private ReplicaReadRouter replicaReadRouter = new ReplicaReadRouter(false, Duration.ofSeconds(2), 100);
+
+    @Captor
+    private ArgumentCaptor<List<Transaction>> transactionsCaptor;
+
     @InjectMocks
     private TransactionService transactionService;
 
@@ -93,6 +122,81 @@ class TransactionServiceTest {
         assertEquals(100, transactionDto.getAmount());
      }
 
+    @Test
+    public void success_useBalance_subLedgered() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .id(1L)
+                .name("user")
+                .build();
+
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .balance(0L)
+                .balanceSlots(4)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(subLedgerService.useBalance(account, 10L))
+                .willReturn(990L);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        transactionService.useBalance(1L, "1234567890", 10L);
+
+        //then
+        verify(transactionRepository, times(1)).save(captor.capture());
+        assertEquals(990, captor.getValue().getBalanceSnapshot());
+        assertEquals(0, account.getBalance());
+    }
+
+    @Test
+    public void success_useBalance_ledger() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.LEDGER);
+        AccountUser user = AccountUser.builder()
+                .id(1L)
+                .name("user")
+                .build();
+
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .balance(0L)
+                .checkpointSequence(3L)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(account));
+        given(ledgerService.append(account, -10L))
+                .willReturn(990L);
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        transactionService.useBalance(1L, "1234567890", 10L);
+
+        //then
+        verify(transactionRepository, times(1)).save(captor.capture());
+        assertEquals(990, captor.getValue().getBalanceSnapshot());
+        assertEquals(0, account.getBalance());
+    }
+
      @Test
      public void Transaction_USER_NOT_FOUND() {
          //given
@@ -227,7 +331,7 @@ class TransactionServiceTest {
                       .accountStatus(AccountStatus.IN_USE)
                       .build();
 
-              given(transactionRepository.findByTransactionId(anyString()))
+              given(transactionRepository.findWithAccountByTransactionId(anyString()))
                       .willReturn(Optional.of(Transaction.builder()
                               .id(1L)
                               .transactionType(TransactionType.CANCEL)
@@ -263,10 +367,43 @@ class TransactionServiceTest {
               assertEquals(1200, captor.getValue().getBalanceSnapshot());
            }
 
+    @Test
+    public void cancelBalance_usesAccountFetchedWithTransaction() {
+        //given
+        Account account = Account.builder()
+                .id(1L)
+                .balance(1000L)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+
+        given(transactionRepository.findWithAccountByTransactionId(anyString()))
+                .willReturn(Optional.of(Transaction.builder()
+                        .id(1L)
+                        .transactionType(TransactionType.USE)
+                        .transactionResultType(TransactionResultType.S)
+                        .amount(200L)
+                        .transactedAt(LocalDateTime.now())
+                        .account(account)
+                        .build()));
+
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        //when
+        TransactionDto transactionDto = transactionService.cancelBalance(
+                "transactionId", "1234567890", 200L);
+
+        //then
+        verify(accountRepository, never()).findByAccountNumber(anyString());
+        assertEquals(1200, transactionDto.getBalanceSnapshot());
+        assertEquals(1200, account.getBalance());
+    }
+
            @Test
            public void cancelBalance_AMOUNT_EXCEED_BALANCE() {
                //given
-               given(transactionRepository.findByTransactionId(anyString()))
+               given(transactionRepository.findWithAccountByTransactionId(anyString()))
                        .willReturn(Optional.empty());
 
                //when
@@ -297,7 +434,7 @@ class TransactionServiceTest {
                         .accountStatus(AccountStatus.IN_USE)
                         .build();
 
-                given(transactionRepository.findByTransactionId(anyString()))
+                given(transactionRepository.findWithAccountByTransactionId(anyString()))
                         .willReturn(Optional.of(
                                 Transaction.builder()
                                         .id(1L)
@@ -339,7 +476,7 @@ class TransactionServiceTest {
                          .accountStatus(AccountStatus.IN_USE)
                          .build();
 
-                 given(transactionRepository.findByTransactionId(anyString()))
+                 given(transactionRepository.findWithAccountByTransactionId(anyString()))
                          .willReturn(Optional.of(
                                  Transaction.builder()
                                          .id(1L)
@@ -389,7 +526,7 @@ class TransactionServiceTest {
                           .accountStatus(AccountStatus.IN_USE)
                           .build();
 
-                  given(transactionRepository.findByTransactionId(anyString()))
+                  given(transactionRepository.findWithAccountByTransactionId(anyString()))
                           .willReturn(Optional.of(
                                   Transaction.builder()
                                           .id(1L)
@@ -431,15 +568,14 @@ class TransactionServiceTest {
                            .accountStatus(AccountStatus.IN_USE)
                            .build();
 
-                   given(transactionRepository.findByTransactionId(anyString()))
-                           .willReturn(Optional.of(Transaction.builder()
-                                   .id(1L)
+                   given(transactionRepository.findDtoByTransactionId(anyString()))
+                           .willReturn(Optional.of(TransactionDto.builder()
+                                   .accountNumber(account.getAccountNumber())
                                    .transactionId("transactionId")
                                    .transactionType(TransactionType.USE)
                                    .transactionResultType(TransactionResultType.S)
                                    .amount(1000L)
                                    .transactedAt(LocalDateTime.now())
-                                   .account(account)
                                    .build()));
 
                    //when
@@ -456,7 +592,7 @@ class TransactionServiceTest {
                 @Test
                 public void queryTransaction_TRANSACTION_NOT_FOUND() {
                     //given
-                    given(transactionRepository.findByTransactionId(anyString()))
+                    given(transactionRepository.findDtoByTransactionId(anyString()))
                             .willReturn(Optional.empty());
 
                     //when
@@ -467,5 +603,241 @@ class TransactionServiceTest {
                     assertEquals(ErrorCode.TRANSACTION_NOT_FOUND, exception.getErrorCode());
                  }
 
+    @Test
+    public void atomic_useBalance() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.ATOMIC);
+        AccountUser user = AccountUser.builder()
+                .id(1L)
+                .name("user")
+                .build();
+
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .balance(990L)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+
+        given(accountRepository.useBalanceIfSufficient(1L, "1234567890", 10L))
+                .willReturn(1);
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(account));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        TransactionDto transactionDto = transactionService.useBalance(1L, "1234567890", 10L);
 
+        //then
+        verify(transactionRepository, times(1)).save(captor.capture());
+        verify(accountUserRepository, never()).findById(anyLong());
+        assertEquals(990, captor.getValue().getBalanceSnapshot());
+        assertEquals(TransactionResultType.S, transactionDto.getTransactionResultType());
+        assertEquals(10, transactionDto.getAmount());
+    }
+
+    @Test
+    public void atomic_useBalance_AMOUNT_EXCEED_BALANCE() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.ATOMIC);
+        AccountUser user = AccountUser.builder()
+                .id(1L)
+                .name("user")
+                .build();
+
+        given(accountRepository.useBalanceIfSufficient(anyLong(), anyString(), anyLong()))
+                .willReturn(0);
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(user)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .accountNumber("1234567890")
+                        .balance(100L)
+                        .build()));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+
+        //then
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, exception.getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    public void atomic_useBalance_USER_ACCOUNT_UN_MATCH() {
+        //given
+        ReflectionTestUtils.setField(transactionService, "transactionMode", TransactionMode.ATOMIC);
+        AccountUser user1 = AccountUser.builder()
+                .id(1L)
+                .name("user1")
+                .build();
+
+        AccountUser user2 = AccountUser.builder()
+                .id(2L)
+                .name("user2")
+                .build();
+
+        given(accountRepository.useBalanceIfSufficient(anyLong(), anyString(), anyLong()))
+                .willReturn(0);
+        given(accountUserRepository.findById(anyLong()))
+                .willReturn(Optional.of(user1));
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.of(Account.builder()
+                        .accountUser(user2)
+                        .accountStatus(AccountStatus.IN_USE)
+                        .accountNumber("1234567890")
+                        .balance(10000L)
+                        .build()));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.useBalance(1L, "1234567890", 1000L));
+
+        //then
+        assertEquals(ErrorCode.USER_ACCOUNT_UN_MATCH, exception.getErrorCode());
+    }
+
+    @Test
+    public void applyMutations() {
+        //given
+        AccountUser user = AccountUser.builder()
+                .id(1L)
+                .name("user")
+                .build();
+
+        Account account = Account.builder()
+                .id(1L)
+                .accountUser(user)
+                .balance(1000L)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+
+        given(accountRepository.findByAccountNumber("1234567890"))
+                .willReturn(Optional.of(account));
+        given(accountUserRepository.findById(1L))
+                .willReturn(Optional.of(user));
+        given(transactionRepository.save(any()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+
+        //when
+        List<BalanceMutationResult> results = transactionService.applyMutations(List.of(
+                BalanceMutation.use(1L, "1234567890", 300L),
+                BalanceMutation.use(1L, "1234567890", 900L),
+                BalanceMutation.use(1L, "1234567890", 700L)));
+
+        //then
+        verify(accountRepository, times(1)).findByAccountNumber("1234567890");
+        verify(transactionRepository, times(3)).save(captor.capture());
+        assertEquals(700, captor.getAllValues().get(0).getBalanceSnapshot());
+        assertEquals(TransactionResultType.F, captor.getAllValues().get(1).getTransactionResultType());
+        assertEquals(0, captor.getAllValues().get(2).getBalanceSnapshot());
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(ErrorCode.AMOUNT_EXCEED_BALANCE, results.get(1).getError().getErrorCode());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(0, account.getBalance());
+    }
+
+    @Test
+    public void applyMutations_ACCOUNT_NOT_FOUND() {
+        //given
+        given(accountRepository.findByAccountNumber(anyString()))
+                .willReturn(Optional.empty());
+        given(accountUserRepository.findById(1L))
+                .willReturn(Optional.of(AccountUser.builder().id(1L).build()));
+
+        //when
+        List<BalanceMutationResult> results = transactionService.applyMutations(List.of(
+                BalanceMutation.use(1L, "1234567890", 300L)));
+
+        //then
+        assertEquals(ErrorCode.ACCOUNT_NOT_FOUND, results.get(0).getError().getErrorCode());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    public void saveFailedTransactions() {
+        //given
+        LocalDateTime failedAt = LocalDateTime.now().minusSeconds(1);
+        Account account = Account.builder()
+                .id(1L)
+                .balance(1000L)
+                .accountNumber("1234567890")
+                .accountStatus(AccountStatus.IN_USE)
+                .build();
+        given(accountRepository.findByAccountNumberIn(List.of("1234567890", "0987654321")))
+                .willReturn(List.of(account));
+        given(transactionIdGenerator.next())
+                .willReturn("transactionId");
+
+        //when
+        transactionService.saveFailedTransactions(List.of(
+                new FailedAttempt(TransactionType.USE, "1234567890", 5000L, failedAt),
+                new FailedAttempt(TransactionType.USE, "0987654321", 100L, failedAt),
+                new FailedAttempt(TransactionType.CANCEL, "1234567890", 200L, failedAt)));
+
+        //then
+        verify(transactionRepository).saveAll(transactionsCaptor.capture());
+        List<Transaction> saved = transactionsCaptor.getValue();
+        assertEquals(2, saved.size());
+        assertEquals(TransactionResultType.F, saved.get(0).getTransactionResultType());
+        assertEquals(5000L, saved.get(0).getAmount());
+        assertNull(saved.get(0).getBalanceSnapshot());
+        assertEquals(failedAt, saved.get(0).getTransactedAt());
+        assertEquals(TransactionType.CANCEL, saved.get(1).getTransactionType());
+    }
+
+    @Test
+    public void getTransactionHistory() {
+        //given
+        LocalDateTime now = LocalDateTime.now();
+
+        given(accountRepository.findOwnershipByAccountNumber(anyString()))
+                .willReturn(Optional.of(new AccountOwnership(1L, 1L, AccountStatus.IN_USE, null)));
+        given(transactionRepository.findHistory(1L, TransactionType.USE, null, Limit.of(3)))
+                .willReturn(List.of(
+                        TransactionHistoryItem.builder().id(30L).transactedAt(now).build(),
+                        TransactionHistoryItem.builder().id(20L).transactedAt(now).build(),
+                        TransactionHistoryItem.builder().id(10L).transactedAt(now.minusDays(1)).build()));
+        given(transactionRepository.findHistoryBefore(1L, now, 20L, TransactionType.USE, null, Limit.of(3)))
+                .willReturn(List.of(
+                        TransactionHistoryItem.builder().id(10L).transactedAt(now.minusDays(1)).build()));
+
+        //when
+        TransactionHistory first = transactionService.getTransactionHistory(
+                "1234567890", null, 2, TransactionType.USE, null);
+        TransactionHistory second = transactionService.getTransactionHistory(
+                "1234567890", first.getNextCursor(), 2, TransactionType.USE, null);
+
+        //then
+        assertEquals(2, first.getTransactions().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(10L, second.getTransactions().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void getTransactionHistory_INVALID_CURSOR() {
+        //given
+        given(accountRepository.findOwnershipByAccountNumber(anyString()))
+                .willReturn(Optional.of(new AccountOwnership(1L, 1L, AccountStatus.IN_USE, null)));
+
+        //when
+        AccountException exception = assertThrows(AccountException.class,
+                () -> transactionService.getTransactionHistory(
+                        "1234567890", "not-a-cursor", 20, null, null));
+
+        //then
+        assertEquals(ErrorCode.INVALID_REQUESTS, exception.getErrorCode());
+    }
 }